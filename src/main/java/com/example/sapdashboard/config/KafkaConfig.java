@@ -1,17 +1,30 @@
 package com.example.sapdashboard.config;
 
+import com.example.sapdashboard.kafka.DeadLetterPublisher;
+import com.example.sapdashboard.kafka.IngestBulkheads;
+import com.example.sapdashboard.kafka.EventSerializer;
+import com.example.sapdashboard.kafka.KafkaProducer;
+import com.example.sapdashboard.kafka.RetryResultConsumer;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -23,18 +36,44 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // SASL_SSL for Aiven; PLAINTEXT for a local or embedded broker (no credentials or truststore needed)
+    @Value("${dashboard.kafka.security-protocol:SASL_SSL}")
+    private String securityProtocol;
+
+    @Value("${dashboard.kafka.truststore-location:/app/kafka-truststore.jks}")
+    private String truststoreLocation;
+
     // Read SASL JAAS config from environment variable (Render)
-    @Value("${KAFKA_SASL_JAAS_CONFIG}")
+    @Value("${KAFKA_SASL_JAAS_CONFIG:}")
     private String kafkaSaslJaasConfig;
 
-    @Value("${KAFKA_TRUSTSTORE_PASSWORD}")
+    @Value("${KAFKA_TRUSTSTORE_PASSWORD:}")
     private String kafkaTruststorePassword;
-    @Value("${KAFKA_USERNAME}")
+    @Value("${KAFKA_USERNAME:}")
     private String kafkaUsername;
 
-    @Value("${KAFKA_PASSWORD}")
+    @Value("${KAFKA_PASSWORD:}")
     private String kafkaPassword;
 
+    // json = Spring JsonSerializer (what external consumers of the retry topic expect),
+    // binary = EventBinaryCodec for events/retry messages, opt-in
+    @Value("${dashboard.kafka.value-codec:json}")
+    private String valueCodec;
+
+    // In-place retries of a failing record before it is dead-lettered
+    @Value("${dashboard.dlt.retry.attempts:2}")
+    private long retryAttempts;
+
+    @Value("${dashboard.dlt.retry.backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${dashboard.dlt.send-timeout-ms:10000}")
+    private long deadLetterSendTimeoutMs;
+
+    // Dead letters are sent one by one; the producer batches what concurrent listeners send within this window
+    @Value("${dashboard.dlt.linger-ms:20}")
+    private long deadLetterLingerMs;
+
 
 
 
@@ -58,36 +97,73 @@ public class KafkaConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic sapIntegrationOrderRetryResultTopic() {
+        // Not compacted: every attempt's outcome is kept until retention
+        return TopicBuilder.name("sap-integration-order-retry-result")
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic sapIntegrationDeadLetterTopic() {
+        return TopicBuilder.name(KafkaProducer.DLT_TOPIC)
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
     // ===== PRODUCER FACTORY =====
 
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs(), new StringSerializer(),
+                new EventSerializer("binary".equalsIgnoreCase(valueCodec)));
+    }
+
+    /**
+     * Raw bytes producer for the dead-letter topic and DLT replay: values are forwarded untouched
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> deadLetterProducerFactory() {
+        Map<String, Object> configProps = producerConfigs();
+        // Never park a listener thread for the default 60s when the broker is unreachable
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, deadLetterSendTimeoutMs);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, deadLetterLingerMs);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new ByteArraySerializer());
+    }
+
+    private Map<String, Object> producerConfigs() {
         Map<String, Object> configProps = new HashMap<>();
 
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
 
         // Aiven security: SASL over TLS
-        configProps.put("security.protocol", "SASL_SSL");
-        configProps.put("sasl.mechanism", "SCRAM-SHA-256");
+        configProps.put("security.protocol", securityProtocol);
+        if (securityProtocol.toUpperCase().startsWith("SASL_")) {
+            configProps.put("sasl.mechanism", "SCRAM-SHA-256");
 
-        String jaas = String.format(
-                "org.apache.kafka.common.security.scram.ScramLoginModule required username=\"%s\" password=\"%s\";",
-                kafkaUsername,
-                kafkaPassword
-        );
-        configProps.put("sasl.jaas.config", jaas);
+            String jaas = String.format(
+                    "org.apache.kafka.common.security.scram.ScramLoginModule required username=\"%s\" password=\"%s\";",
+                    kafkaUsername,
+                    kafkaPassword
+            );
+            configProps.put("sasl.jaas.config", jaas);
+        }
 
         // Truststore
-        configProps.put("ssl.truststore.location", "/app/kafka-truststore.jks");
-        configProps.put("ssl.truststore.password", kafkaTruststorePassword);
+        if (securityProtocol.toUpperCase().endsWith("SSL")) {
+            configProps.put("ssl.truststore.location", truststoreLocation);
+            configProps.put("ssl.truststore.password", kafkaTruststorePassword);
+        }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return configProps;
     }
 
 
@@ -97,6 +173,71 @@ public class KafkaConfig {
     public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> deadLetterKafkaTemplate() {
+        return new KafkaTemplate<>(deadLetterProducerFactory());
+    }
+
+    // ===== LISTENER CONTAINERS =====
+
+    /**
+     * Container for the events listener: Boot's settings, but records are acknowledged by the
+     * listener, or with the ingest bulkheads enabled, by IngestBulkheads once every earlier record
+     * of the partition is saved. Polling never waits on the lanes; the bulkheads drop their
+     * offsets of revoked partitions. A dead-lettered record is not committed by the error handler
+     * then, which could pass records still in a lane, but by the next acknowledgment after it.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> eventsListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DeadLetterPublisher deadLetterPublisher, IngestBulkheads bulkheads) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(bulkheads);
+        DefaultErrorHandler errorHandler = deadLetterErrorHandler(deadLetterPublisher);
+        errorHandler.setAckAfterHandle(!bulkheads.isEnabled());
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Container for the retry-result listener. Results come from the external retry worker, which
+     * may send plain JSON without type headers (or with its own __TypeId__), so this listener gets
+     * its own consumer factory that always reads values as RetryResultMessage. Not a bean: a
+     * second ConsumerFactory bean would replace Boot's.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryResultListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        Map<String, Object> configs = new HashMap<>(consumerFactory.getConfigurationProperties());
+        configs.putAll(RetryResultConsumer.VALUE_DESERIALIZER_CONFIGS);
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(configs));
+        return factory;
+    }
+
+    // ===== ERROR HANDLING =====
+
+    /**
+     * Picked up by Boot's listener container factory: a failing record is retried in place a few
+     * times, then handed to the dead-letter publisher and the partition moves on.
+     * Undecodable records and invalid events are dead-lettered without retries.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(DeadLetterPublisher deadLetterPublisher) {
+        return deadLetterErrorHandler(deadLetterPublisher);
+    }
+
+    private DefaultErrorHandler deadLetterErrorHandler(DeadLetterPublisher deadLetterPublisher) {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetterPublisher,
+                new FixedBackOff(retryBackoffMs, retryAttempts));
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class, DataIntegrityViolationException.class);
+        return errorHandler;
+    }
 }
 
 
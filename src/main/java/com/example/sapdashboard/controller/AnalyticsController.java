@@ -0,0 +1,44 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.service.AnalyticsQuery;
+import com.example.sapdashboard.service.AnalyticsStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Ad-hoc breakdowns over the columnar analytics store
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+
+    private final AnalyticsStore analyticsStore;
+
+    /**
+     * GET /api/analytics?groupBy=integrationName,status&filter=status:FAILED,since:7d&bucket=hour
+     */
+    @GetMapping("/api/analytics")
+    public ResponseEntity<Map<String, Object>> analytics(
+            @RequestParam(value = "groupBy", required = false) String groupBy,
+            @RequestParam(value = "filter", required = false) String filter,
+            @RequestParam(value = "bucket", required = false) String bucket) {
+        AnalyticsQuery query = AnalyticsQuery.parse(groupBy, filter, bucket);
+        return ResponseEntity.ok(analyticsStore.query(query));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidQuery(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
+        ));
+    }
+}
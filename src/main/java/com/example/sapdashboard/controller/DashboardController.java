@@ -1,19 +1,42 @@
 package com.example.sapdashboard.controller;
 
+import com.example.sapdashboard.dto.BulkReprocessRequest;
 import com.example.sapdashboard.dto.RetryEventRequest;
+import com.example.sapdashboard.kafka.MaterializedEventView;
+import com.example.sapdashboard.model.EventProjection;
 import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.model.PayloadRef;
+import com.example.sapdashboard.service.AutoRetryScheduler;
+import com.example.sapdashboard.service.BulkIngestService;
+import com.example.sapdashboard.service.EventNotLocalException;
 import com.example.sapdashboard.service.EventService;
+import com.example.sapdashboard.service.IngestMode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequiredArgsConstructor
@@ -21,7 +44,10 @@ import java.util.Map;
 public class DashboardController {
 
     private final EventService eventService;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BulkIngestService bulkIngestService;
+    private final ApplicationAvailability applicationAvailability;
+    private final Optional<MaterializedEventView> materializedView;
+    private final Optional<AutoRetryScheduler> autoRetryScheduler;
 
     // ===== WEB PAGES (Thymeleaf) =====
 
@@ -86,29 +112,46 @@ public class DashboardController {
 
     /**
      * POST /api/events - Create/Save new event
-     * Receive event from external system and save to database
+     * Receive event from external system; depending on dashboard.ingest.mode it is saved
+     * here and published, or only published and saved by the Kafka consumer
      */
     @PostMapping("/api/events")
     public ResponseEntity<IntegrationEvent> createEvent(@RequestBody IntegrationEvent event) {
         log.info("Creating new event for order: {}", event.getOrderId());
 
-        IntegrationEvent savedEvent = eventService.saveEvent(event);
-
-        // Also publish to Kafka topic
         try {
-            kafkaTemplate.send("sap-integration-events", event.getOrderId(), savedEvent);
-        } catch (Exception e) {
-            log.error("Error publishing to Kafka", e);
+            IntegrationEvent savedEvent = eventService.ingestEvent(event);
+            if (eventService.getIngestMode() == IngestMode.KAFKA) {
+                return ResponseEntity.accepted().body(savedEvent);
+            }
+            return ResponseEntity.ok(savedEvent);
+        } catch (RuntimeException e) {
+            log.error("Error ingesting event", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
+    }
+
+    /**
+     * POST /api/events/bulk - Create many events in one request
+     * Body is NDJSON (one event per line) or a JSON array; results are streamed back per line
+     */
+    @PostMapping("/api/events/bulk")
+    public void createEventsBulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Bulk ingest started ({} bytes declared)", request.getContentLengthLong());
 
-        return ResponseEntity.ok(savedEvent);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        bulkIngestService.ingest(request.getInputStream(), response.getOutputStream());
     }
 
     /**
-     * GET /api/events - Get all events (REST API)
+     * GET /api/events - Get all events (REST API; JSON, or CBOR with Accept: application/cbor)
+     * ?fields=id,orderId,status,timeAgo returns only those fields
      */
     @GetMapping("/api/events")
-    public ResponseEntity<List<IntegrationEvent>> getAllEvents() {
+    public ResponseEntity<?> getAllEvents(@RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return eventFields(fields, null, null);
+        }
         List<IntegrationEvent> events = eventService.getAllEvents();
         return ResponseEntity.ok(events);
     }
@@ -116,20 +159,97 @@ public class DashboardController {
     /**
      * GET /api/events/{id} - Get event details by ID
      * Used by modal to fetch event details including payload
+     * ETag is "{id}.{updatedAt millis}.{store version}": if nothing was written since the
+     * client's copy, If-None-Match is answered with 304 without loading the event
+     * With the materialized view, ?orderId= selects the event in the view (see EventService#getEventDetails)
      */
     @GetMapping("/api/events/{id}")
-    public ResponseEntity<IntegrationEvent> getEventDetails(@PathVariable Long id) {
+    public ResponseEntity<IntegrationEvent> getEventDetails(@PathVariable("id") Long id,
+                                                            @RequestParam(value = "orderId", required = false) String orderId,
+                                                            WebRequest request) {
         log.info("Fetching event details for ID: {}", id);
 
-        IntegrationEvent event = eventService.getEventDetails(id);
-        return ResponseEntity.ok(event);
+        long version = eventService.getStoreVersion();
+        String[] clientTag = parseEntityTag(request.getHeader(HttpHeaders.IF_NONE_MATCH));
+        if (clientTag != null && clientTag[0].equals(id.toString())
+                && clientTag[2].equals(Long.toString(version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag(id, clientTag[1], version)).build();
+        }
+
+        IntegrationEvent event;
+        try {
+            event = eventService.getEventDetails(id, orderId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String updated = event.getUpdatedAt() == null ? "0"
+                : Long.toString(event.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        String etag = entityTag(id, updated, version);
+        if (clientTag != null && clientTag[0].equals(id.toString()) && clientTag[1].equals(updated)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(event);
+    }
+
+    /**
+     * GET /api/events/{id}/payload?field=payload - Raw body of payload, originalPayload or retryHistory
+     * With the payload log the bytes are written from the mapped segment, never decoded into a String
+     */
+    @GetMapping("/api/events/{id}/payload")
+    public ResponseEntity<StreamingResponseBody> getPayloadBody(
+            @PathVariable Long id,
+            @RequestParam(value = "field", defaultValue = "payload") String field,
+            @RequestParam(value = "orderId", required = false) String orderId) {
+        ByteBuffer body;
+        try {
+            body = eventService.getPayloadBody(id, orderId, PayloadRef.Field.fromName(field));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(sniffContentType(body))
+                .contentLength(body.remaining())
+                .body(out -> {
+                    WritableByteChannel channel = Channels.newChannel(out);
+                    while (body.hasRemaining()) {
+                        channel.write(body);
+                    }
+                });
+    }
+
+    /**
+     * XML or JSON by the first non-blank byte, plain text otherwise
+     */
+    private static MediaType sniffContentType(ByteBuffer body) {
+        for (int i = body.position(); i < body.limit(); i++) {
+            byte b = body.get(i);
+            if (b == '<') {
+                return new MediaType(MediaType.APPLICATION_XML, StandardCharsets.UTF_8);
+            }
+            if (b == '{' || b == '[') {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (!Character.isWhitespace(b)) {
+                break;
+            }
+        }
+        return new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
     }
 
     /**
      * GET /api/events/status/{status} - Get events by status
      */
     @GetMapping("/api/events/status/{status}")
-    public ResponseEntity<List<IntegrationEvent>> getEventsByStatus(@PathVariable String status) {
+    public ResponseEntity<?> getEventsByStatus(@PathVariable String status,
+                                               @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return eventFields(fields, status, null);
+        }
         List<IntegrationEvent> events = eventService.getEventsByStatus(status);
         return ResponseEntity.ok(events);
     }
@@ -138,18 +258,59 @@ public class DashboardController {
      * GET /api/events/search/{orderId} - Search events by Order ID
      */
     @GetMapping("/api/events/search/{orderId}")
-    public ResponseEntity<List<IntegrationEvent>> searchByOrderId(@PathVariable String orderId) {
+    public ResponseEntity<?> searchByOrderId(@PathVariable String orderId,
+                                             @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return eventFields(fields, null, orderId.trim());
+        }
         List<IntegrationEvent> events = eventService.searchByOrderId(orderId);
         return ResponseEntity.ok(events);
     }
 
+    /**
+     * GET /api/events/by-field?name=customerId&value=CUST-001&limit=100
+     * Events whose payload had the value for an extracted field; an index lookup, no payload scan
+     */
+    @GetMapping("/api/events/by-field")
+    public ResponseEntity<?> getEventsByField(@RequestParam("name") String name,
+                                              @RequestParam("value") String value,
+                                              @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "limit must be positive"));
+        }
+        try {
+            return ResponseEntity.ok(eventService.getEventsByFieldValue(name, value, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    private ResponseEntity<?> eventFields(String fields, String status, String orderId) {
+        try {
+            return ResponseEntity.ok(eventService.getEventFields(EventProjection.parse(fields), status, orderId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * GET /api/stats - Get dashboard statistics
+     * Conditional on the store version: repeated polls without writes get a 304
      */
     @GetMapping("/api/stats")
-    public ResponseEntity<Map<String, Object>> getStats() {
-        Map<String, Object> stats = eventService.getDashboardStats();
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<Map<String, Object>> getStats(WebRequest request) {
+        String etag = storeTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        Map<String, Object> stats = eventService.getDashboardStats(false);
+        return ResponseEntity.ok().eTag(etag).body(stats);
     }
 
     /**
@@ -157,16 +318,19 @@ public class DashboardController {
      * Used by simple retry button in dashboard
      */
     @PostMapping("/api/events/{id}/reprocess")
-    public ResponseEntity<Map<String, String>> reprocessEvent(@PathVariable Long id) {
+    public ResponseEntity<Map<String, String>> reprocessEvent(@PathVariable Long id,
+                                                              @RequestParam(value = "orderId", required = false) String orderId) {
         log.info("Reprocessing event: {}", id);
 
         try {
-            eventService.reprocessEvent(id);
+            eventService.reprocessEvent(eventService.resolveEventId(id, orderId));
 
             return ResponseEntity.ok(Map.of(
                     "status", "success",
                     "message", "Event reprocessed successfully"
             ));
+        } catch (EventNotLocalException e) {
+            return notLocal(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "status", "error",
@@ -175,6 +339,24 @@ public class DashboardController {
         }
     }
 
+    /**
+     * POST /api/events/reprocess/bulk - Reprocess every FAILED event matching a filter
+     * Body: {"integrationName": "...", "errorPattern": "timeout", "createdFrom": "...", "createdTo": "..."}
+     */
+    @PostMapping("/api/events/reprocess/bulk")
+    public ResponseEntity<Map<String, Object>> bulkReprocess(@RequestBody BulkReprocessRequest request) {
+        log.info("Bulk reprocess: {}", request);
+
+        try {
+            return ResponseEntity.ok(eventService.bulkReprocess(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * POST /api/events/{id}/retry - Retry with updated payload (Modal)
      * Used by payload editor modal when user submits edited payload
@@ -182,12 +364,13 @@ public class DashboardController {
     @PostMapping("/api/events/{id}/retry")
     public ResponseEntity<Map<String, String>> retryFailedEvent(
             @PathVariable Long id,
+            @RequestParam(value = "orderId", required = false) String orderId,
             @RequestBody RetryEventRequest request) {
 
         log.info("Retrying event: {} with updated payload", id);
 
         try {
-            request.setEventId(id);
+            request.setEventId(eventService.resolveEventId(id, orderId));
             eventService.retryFailedEvent(request);
 
             return ResponseEntity.ok(Map.of(
@@ -195,6 +378,8 @@ public class DashboardController {
                     "message", "Event sent to retry topic successfully",
                     "eventId", id.toString()
             ));
+        } catch (EventNotLocalException e) {
+            return notLocal(e);
         } catch (RuntimeException e) {
             log.error("Error retrying event", e);
             return ResponseEntity.badRequest().body(Map.of(
@@ -204,6 +389,33 @@ public class DashboardController {
         }
     }
 
+    /**
+     * 409: the row behind this event is in another replica's store, so only that replica can change it
+     */
+    private ResponseEntity<Map<String, String>> notLocal(EventNotLocalException e) {
+        log.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getInstanceId() == null
+                ? Map.of("status", "error", "message", e.getMessage())
+                : Map.of("status", "error", "message", e.getMessage(), "instanceId", e.getInstanceId()));
+    }
+
+    /**
+     * GET /api/retry/auto - Automatic retry timers and counters (404 when auto-retry is disabled)
+     */
+    @GetMapping("/api/retry/auto")
+    public ResponseEntity<Map<String, Long>> autoRetryStats() {
+        return autoRetryScheduler.map(scheduler -> ResponseEntity.ok(scheduler.getStats()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/coalescing - Executions vs. shared results of the coalesced dashboard reads
+     */
+    @GetMapping("/api/coalescing")
+    public ResponseEntity<Map<String, Object>> coalescingStats() {
+        return ResponseEntity.ok(eventService.getCoalescingStats());
+    }
+
     /**
      * GET /health - Health check endpoint
      */
@@ -216,12 +428,62 @@ public class DashboardController {
         ));
     }
 
+    /**
+     * GET /health/ready - Readiness for the load balancer
+     * 503 until startup finished and (in materialized view mode) the view has caught up
+     */
+    @GetMapping("/health/ready")
+    public ResponseEntity<Map<String, String>> ready() {
+        ReadinessState state = applicationAvailability.getReadinessState();
+        boolean viewCaughtUp = materializedView.map(MaterializedEventView::isCaughtUp).orElse(true);
+        boolean ready = state == ReadinessState.ACCEPTING_TRAFFIC && viewCaughtUp;
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "status", ready ? "READY" : "NOT_READY",
+                "readiness", state.name(),
+                "materializedViewCaughtUp", Boolean.toString(viewCaughtUp),
+                "timestamp", LocalDateTime.now().toString()
+        ));
+    }
+
     /**
      * GET /api/events/count/byStatus - Get event count by status
+     * Conditional on the store version like /api/stats
      */
     @GetMapping("/api/events/count/byStatus")
-    public ResponseEntity<Map<String, Long>> getEventCountByStatus() {
-        Map<String, Long> counts = eventService.getEventCountByStatus();
-        return ResponseEntity.ok(counts);
+    public ResponseEntity<Map<String, Long>> getEventCountByStatus(WebRequest request) {
+        String etag = storeTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        Map<String, Long> counts = eventService.getEventCountByStatus(false);
+        return ResponseEntity.ok().eTag(etag).body(counts);
+    }
+
+    // ===== ETAG HELPERS =====
+
+    /**
+     * Strong ETag for aggregate endpoints, read before the data so it is never newer than the body
+     */
+    private String storeTag() {
+        return "\"v" + eventService.getStoreVersion() + "\"";
+    }
+
+    private String entityTag(Long id, String updated, long version) {
+        return "\"" + id + "." + updated + "." + version + "\"";
+    }
+
+    /**
+     * Split an If-None-Match value produced by entityTag into {id, updated, version}
+     */
+    private String[] parseEntityTag(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String tag = ifNoneMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        String[] parts = tag.substring(1, tag.length() - 1).split("\\.");
+        return parts.length == 3 ? parts : null;
     }
 }
@@ -0,0 +1,51 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.kafka.DeadLetterPublisher;
+import com.example.sapdashboard.kafka.DeadLetterReplayer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Dead-letter topic: publisher counters and replay
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    /**
+     * GET /api/dlt - Dead letters published and failed
+     */
+    @GetMapping("/api/dlt")
+    public ResponseEntity<Map<String, Long>> stats() {
+        return ResponseEntity.ok(deadLetterPublisher.getStats());
+    }
+
+    /**
+     * POST /api/dlt/replay?max=1000 - Send dead letters back to their original topic
+     */
+    @PostMapping("/api/dlt/replay")
+    public ResponseEntity<Map<String, Object>> replay(@RequestParam(value = "max", defaultValue = "1000") int max) {
+        log.info("Replaying up to {} dead letters", max);
+
+        try {
+            return ResponseEntity.ok(deadLetterReplayer.replay(max));
+        } catch (RuntimeException e) {
+            log.error("Error replaying dead letters", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.service.ErrorSignatureIndex;
+import com.example.sapdashboard.service.EventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top failure reasons by error signature, and the events behind each signature
+ */
+@RestController
+@RequiredArgsConstructor
+public class ErrorSignatureController {
+
+    private final ErrorSignatureIndex errorSignatures;
+    private final EventService eventService;
+
+    /**
+     * GET /api/errors/top?window=24h&limit=10&integrationName=Order-to-SAP
+     */
+    @GetMapping("/api/errors/top")
+    public ResponseEntity<Map<String, Object>> top(
+            @RequestParam(value = "window", defaultValue = "24h") String window,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestParam(value = "integrationName", required = false) String integrationName) {
+        return ResponseEntity.ok(errorSignatures.top(window, limit, integrationName));
+    }
+
+    /**
+     * GET /api/errors/{signature}/events?limit=50 - Newest events with this signature
+     */
+    @GetMapping("/api/errors/{signature}/events")
+    public ResponseEntity<Map<String, Object>> events(
+            @PathVariable String signature,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        Map<String, Object> description = errorSignatures.describe(signature);
+        if (description == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        List<IntegrationEvent> events = eventService.getEventsByErrorSignature(signature, limit);
+        Map<String, Object> response = new LinkedHashMap<>(description);
+        response.put("events", events);
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidQuery(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
+        ));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.service.FlightRecorderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin API for an on-demand JDK Flight Recorder recording (open with JDK Mission Control or `jfr print`)
+ */
+@RestController
+@RequiredArgsConstructor
+public class FlightRecorderController {
+
+    private final FlightRecorderService flightRecorder;
+
+    /**
+     * GET /api/admin/jfr - Recording state and the dumps on disk
+     */
+    @GetMapping("/api/admin/jfr")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(flightRecorder.getStatus());
+    }
+
+    /**
+     * POST /api/admin/jfr/start?maxAgeMinutes=30&maxSizeMb=100 - Start a bounded recording
+     */
+    @PostMapping("/api/admin/jfr/start")
+    public ResponseEntity<Map<String, Object>> start(
+            @RequestParam(value = "maxAgeMinutes", required = false) Integer maxAgeMinutes,
+            @RequestParam(value = "maxSizeMb", required = false) Integer maxSizeMb) {
+        try {
+            return ResponseEntity.ok(flightRecorder.start(maxAgeMinutes, maxSizeMb));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * POST /api/admin/jfr/dump - Write the recording so far to disk and keep recording
+     */
+    @PostMapping("/api/admin/jfr/dump")
+    public ResponseEntity<Map<String, Object>> dump() {
+        try {
+            return dumped(flightRecorder.dump(), "Recording dumped");
+        } catch (IllegalStateException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * POST /api/admin/jfr/stop - Dump the recording to disk and stop it
+     */
+    @PostMapping("/api/admin/jfr/stop")
+    public ResponseEntity<Map<String, Object>> stop() {
+        try {
+            return dumped(flightRecorder.stop(), "Recording stopped");
+        } catch (IllegalStateException e) {
+            return badRequest(e);
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> dumped(Path file, String message) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "success");
+        response.put("message", message);
+        response.put("file", file.toString());
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> badRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.kafka.IngestBulkheads;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Per-integration ingest lanes: which one is saturating
+ */
+@RestController
+@RequiredArgsConstructor
+public class IngestBulkheadController {
+
+    private final IngestBulkheads bulkheads;
+
+    /**
+     * GET /api/ingest/bulkheads - Queue depth, saves, retries, latency and database wait per lane
+     */
+    @GetMapping("/api/ingest/bulkheads")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(bulkheads.getStats());
+    }
+}
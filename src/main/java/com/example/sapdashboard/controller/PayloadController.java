@@ -0,0 +1,60 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.dto.PayloadValidationResult;
+import com.example.sapdashboard.service.InvalidPayloadException;
+import com.example.sapdashboard.service.PayloadFormatService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Payload tools used by the retry editor modal
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class PayloadController {
+
+    private final PayloadFormatService payloadFormatService;
+
+    /**
+     * POST /api/payload/validate?format=XML - Check the payload is well-formed
+     */
+    @PostMapping("/api/payload/validate")
+    public ResponseEntity<PayloadValidationResult> validate(
+            @RequestParam(value = "format", required = false) String format,
+            @RequestBody String payload) {
+        return ResponseEntity.ok(payloadFormatService.validate(payload, format));
+    }
+
+    /**
+     * POST /api/payload/pretty?format=XML - Re-indent the payload
+     */
+    @PostMapping(value = "/api/payload/pretty", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> prettyPrint(
+            @RequestParam(value = "format", required = false) String format,
+            @RequestBody String payload) {
+        return ResponseEntity.ok(payloadFormatService.prettyPrint(payload, format));
+    }
+
+    /**
+     * POST /api/payload/minify?format=JSON - Strip insignificant whitespace
+     */
+    @PostMapping(value = "/api/payload/minify", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> minify(
+            @RequestParam(value = "format", required = false) String format,
+            @RequestBody String payload) {
+        return ResponseEntity.ok(payloadFormatService.minify(payload, format));
+    }
+
+    @ExceptionHandler(InvalidPayloadException.class)
+    public ResponseEntity<PayloadValidationResult> invalidPayload(InvalidPayloadException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(e.getResult());
+    }
+}
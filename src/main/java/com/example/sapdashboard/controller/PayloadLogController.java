@@ -0,0 +1,60 @@
+package com.example.sapdashboard.controller;
+
+import com.example.sapdashboard.service.PayloadLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Payload log: segment usage, payload purge and compaction (404 when the payload log is disabled)
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class PayloadLogController {
+
+    private final Optional<PayloadLog> payloadLog;
+
+    /**
+     * GET /api/payload-log - Segments, total and live bytes, compaction counters
+     */
+    @GetMapping("/api/payload-log")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return payloadLog.map(payloads -> ResponseEntity.ok(payloads.getStats()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/payload-log/purge?status=SUCCESS&olderThanDays=30 - Drop payload bodies of old events
+     */
+    @PostMapping("/api/payload-log/purge")
+    public ResponseEntity<Map<String, Object>> purge(
+            @RequestParam(value = "status", defaultValue = "SUCCESS") String status,
+            @RequestParam(value = "olderThanDays", defaultValue = "30") int olderThanDays) {
+        if (payloadLog.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        log.info("Purging payloads of {} events older than {} days", status, olderThanDays);
+        return ResponseEntity.ok(payloadLog.get().purge(status.toUpperCase(), LocalDateTime.now().minusDays(olderThanDays)));
+    }
+
+    /**
+     * POST /api/payload-log/compact - Run compaction now instead of waiting for the next interval
+     */
+    @PostMapping("/api/payload-log/compact")
+    public ResponseEntity<Map<String, Object>> compact() {
+        if (payloadLog.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        payloadLog.get().compact();
+        return ResponseEntity.ok(payloadLog.get().getStats());
+    }
+}
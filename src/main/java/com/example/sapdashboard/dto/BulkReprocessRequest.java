@@ -0,0 +1,21 @@
+package com.example.sapdashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Filter for POST /api/events/reprocess/bulk. Only FAILED events are ever reprocessed;
+ * every other field is optional and narrows the selection.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReprocessRequest {
+    private String status; // Optional, must be FAILED when given
+    private String integrationName;
+    private String errorPattern; // Substring of errorDetails
+    private LocalDateTime createdFrom; // Inclusive
+    private LocalDateTime createdTo; // Exclusive
+}
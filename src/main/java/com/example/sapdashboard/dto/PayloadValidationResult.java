@@ -0,0 +1,38 @@
+package com.example.sapdashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayloadValidationResult {
+    private boolean valid;
+    private String format; // XML or JSON
+    private Integer line; // Position of the first error (1-based), null when valid
+    private Integer column;
+    private String message;
+
+    public static PayloadValidationResult ok(String format) {
+        return new PayloadValidationResult(true, format, null, null, null);
+    }
+
+    public static PayloadValidationResult error(String format, Integer line, Integer column, String message) {
+        return new PayloadValidationResult(false, format, line, column, message);
+    }
+
+    /**
+     * Human readable description, e.g. "Invalid XML at line 3, column 7: ..."
+     */
+    public String describe() {
+        if (valid) {
+            return "Valid " + format;
+        }
+        StringBuilder text = new StringBuilder("Invalid ").append(format);
+        if (line != null) {
+            text.append(" at line ").append(line).append(", column ").append(column);
+        }
+        return text.append(": ").append(message).toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.sapdashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a retry sent to sap-integration-order-retry, read from sap-integration-order-retry-result.
+ * Matched to the event by orderId and retryAttempt (the event's retryCount when the retry was sent).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryResultMessage {
+    private String orderId;
+    private Integer retryAttempt;
+    private String status; // SUCCESS or FAILED
+    private String errorDetails; // Set when FAILED
+    private LocalDateTime processedAt;
+}
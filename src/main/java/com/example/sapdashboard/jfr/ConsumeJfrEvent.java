@@ -0,0 +1,60 @@
+package com.example.sapdashboard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One record handled by KafkaConsumer.consume
+ */
+@Name("com.example.sapdashboard.KafkaConsume")
+@Label("Kafka Consume")
+@Category({"SAP Dashboard", "Ingest"})
+@Description("Integration event received from sap-integration-events")
+@StackTrace(false)
+public class ConsumeJfrEvent extends jdk.jfr.Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Payload Length")
+    @Description("Payload length in characters")
+    int payloadLength;
+
+    @Label("Skipped")
+    @Description("Published by this instance and already saved by the REST path")
+    boolean skipped;
+
+    @Label("Lane")
+    @Description("Ingest bulkhead (integrationName) that saved the event, when bulkheads are enabled")
+    String lane;
+
+    @Label("Queue Duration")
+    @Description("Waiting in the lane's queue and for a database turn")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueDuration;
+
+    @Label("Save Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long saveDuration;
+
+    public void commitPhases(String orderId, String payload, boolean skipped, long saveNanos) {
+        commitPhases(orderId, payload, skipped, null, 0, saveNanos);
+    }
+
+    public void commitPhases(String orderId, String payload, boolean skipped, String lane, long queueNanos,
+                             long saveNanos) {
+        if (shouldCommit()) {
+            this.orderId = orderId;
+            this.payloadLength = payload == null ? 0 : payload.length();
+            this.skipped = skipped;
+            this.lane = lane;
+            this.queueDuration = queueNanos;
+            this.saveDuration = saveNanos;
+            commit();
+        }
+    }
+}
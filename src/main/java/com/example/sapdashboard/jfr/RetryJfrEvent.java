@@ -0,0 +1,56 @@
+package com.example.sapdashboard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One EventService.retryFailedEvent call (retry with an edited payload), split into its phases
+ */
+@Name("com.example.sapdashboard.EventRetry")
+@Label("Event Retry")
+@Category({"SAP Dashboard", "Retry"})
+@Description("FAILED event retried with an edited payload")
+@StackTrace(false)
+public class RetryJfrEvent extends jdk.jfr.Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Retry Attempt")
+    int retryAttempt;
+
+    @Label("Payload Length")
+    @Description("Edited payload length in characters")
+    int payloadLength;
+
+    @Label("Validate Duration")
+    @Description("Payload format detection and XML/JSON parsing")
+    @Timespan(Timespan.NANOSECONDS)
+    long validateDuration;
+
+    @Label("Store Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long storeDuration;
+
+    @Label("Publish Duration")
+    @Description("Handing the state change and retry message to the Kafka producer")
+    @Timespan(Timespan.NANOSECONDS)
+    long publishDuration;
+
+    public void commitPhases(String orderId, int retryAttempt, String payload,
+                             long validateNanos, long storeNanos, long publishNanos) {
+        if (shouldCommit()) {
+            this.orderId = orderId;
+            this.retryAttempt = retryAttempt;
+            this.payloadLength = payload == null ? 0 : payload.length();
+            this.validateDuration = validateNanos;
+            this.storeDuration = storeNanos;
+            this.publishDuration = publishNanos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.sapdashboard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One retry message sent to sap-integration-order-retry, from send() until the broker ack.
+ * Committed on the producer thread that completes the send.
+ */
+@Name("com.example.sapdashboard.RetrySend")
+@Label("Retry Send")
+@Category({"SAP Dashboard", "Retry"})
+@Description("Retry message published to Kafka; the event duration runs until the ack")
+@StackTrace(false)
+public class RetrySendJfrEvent extends jdk.jfr.Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Retry Attempt")
+    int retryAttempt;
+
+    @Label("Payload Length")
+    @Description("Updated payload length in characters")
+    int payloadLength;
+
+    @Label("Send Duration")
+    @Description("Time spent in KafkaTemplate.send (serialization, metadata, buffer space)")
+    @Timespan(Timespan.NANOSECONDS)
+    long sendDuration;
+
+    @Label("Acknowledged")
+    boolean acknowledged;
+
+    public void commitAck(String orderId, int retryAttempt, String payload, long sendNanos, boolean acknowledged) {
+        if (shouldCommit()) {
+            this.orderId = orderId;
+            this.retryAttempt = retryAttempt;
+            this.payloadLength = payload == null ? 0 : payload.length();
+            this.sendDuration = sendNanos;
+            this.acknowledged = acknowledged;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.sapdashboard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One EventService.saveEvent call, split into its phases
+ */
+@Name("com.example.sapdashboard.EventSave")
+@Label("Event Save")
+@Category({"SAP Dashboard", "Ingest"})
+@Description("Integration event written to the event store")
+@StackTrace(false)
+public class SaveJfrEvent extends jdk.jfr.Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Status")
+    String status;
+
+    @Label("Payload Length")
+    @Description("Payload length in characters")
+    int payloadLength;
+
+    @Label("Payload Log Duration")
+    @Description("Writing payload bodies to the payload log, when enabled")
+    @Timespan(Timespan.NANOSECONDS)
+    long payloadLogDuration;
+
+    @Label("Store Duration")
+    @Description("EventStore.save: Hibernate and H2, or the in-memory engine")
+    @Timespan(Timespan.NANOSECONDS)
+    long storeDuration;
+
+    @Label("Index Duration")
+    @Description("Analytics store, error signatures, field index and auto-retry scheduling after the save")
+    @Timespan(Timespan.NANOSECONDS)
+    long indexDuration;
+
+    public void commitPhases(String orderId, String status, int payloadLength,
+                             long payloadLogNanos, long storeNanos, long indexNanos) {
+        if (shouldCommit()) {
+            this.orderId = orderId;
+            this.status = status;
+            this.payloadLength = payloadLength;
+            this.payloadLogDuration = payloadLogNanos;
+            this.storeDuration = storeNanos;
+            this.indexDuration = indexNanos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.sapdashboard.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recoverer for records the listeners gave up on (undecodable, or still failing after the
+ * bounded in-place retries). Records go to the dead-letter topic with their original value bytes,
+ * original headers and the standard kafka_dlt-* headers describing the source and the error.
+ *
+ * Each dead letter is sent right away and the caller waits on its own send future; the producer's
+ * linger.ms (dashboard.dlt.linger-ms) batches the sends of concurrent callers, so a burst of poison
+ * records costs one broker round trip per batch, not per record. accept() only returns once the
+ * record is in the DLT; a failed or timed-out send throws, so the error handler does not commit
+ * past the record and it is delivered again.
+ */
+@Component
+@Slf4j
+public class DeadLetterPublisher implements ConsumerRecordRecoverer {
+
+    private final KafkaTemplate<String, byte[]> deadLetterTemplate;
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final long sendTimeoutMs;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public DeadLetterPublisher(@Qualifier("deadLetterKafkaTemplate") KafkaTemplate<String, byte[]> deadLetterTemplate,
+                               @Value("${dashboard.dlt.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.deadLetterTemplate = deadLetterTemplate;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        Throwable cause = exception instanceof ListenerExecutionFailedException && exception.getCause() != null
+                ? exception.getCause() : exception;
+        log.warn("Dead-lettering {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), cause.toString());
+
+        ProducerRecord<String, byte[]> deadLetter = toDeadLetter(record, cause);
+        try {
+            deadLetterTemplate.send(deadLetter).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            published.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            throw new IllegalStateException("Interrupted while dead-lettering record", e);
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            log.error("Failed to publish dead letter from {}", record.topic(), e.getCause());
+            // Rethrowing makes the error handler seek back and try the record again
+            throw new IllegalStateException("Failed to dead-letter record", e.getCause());
+        } catch (TimeoutException | RuntimeException e) {
+            // A timed-out send may still land, so a redelivered record can be dead-lettered twice
+            failed.incrementAndGet();
+            log.error("Failed to publish dead letter from {}", record.topic(), e);
+            throw new IllegalStateException("Failed to dead-letter record", e);
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "published", published.get(),
+                "failed", failed.get()
+        );
+    }
+
+    private ProducerRecord<String, byte[]> toDeadLetter(ConsumerRecord<?, ?> record, Throwable cause) {
+        Headers headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            // The serialized deserializer exception is large and replaced by the kafka_dlt-* headers
+            if (!SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER.equals(header.key())
+                    && !SerializationUtils.KEY_DESERIALIZER_EXCEPTION_HEADER.equals(header.key())) {
+                headers.add(header);
+            }
+        }
+        byte[] value = originalValue(record, cause, headers);
+
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array());
+        headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TIMESTAMP, ByteBuffer.allocate(Long.BYTES).putLong(record.timestamp()).array());
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, cause.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        if (cause.getCause() != null) {
+            headers.add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, cause.getCause().getClass().getName().getBytes(StandardCharsets.UTF_8));
+        }
+        if (cause.getMessage() != null) {
+            headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, cause.getMessage().getBytes(StandardCharsets.UTF_8));
+        }
+
+        Object key = record.key();
+        return new ProducerRecord<>(KafkaProducer.DLT_TOPIC, null, key == null ? null : key.toString(), value, headers);
+    }
+
+    /**
+     * Undecodable records keep the exact bytes from the broker. Records that decoded but failed
+     * later are re-encoded in the format named by their (copied) content-type header.
+     */
+    private byte[] originalValue(ConsumerRecord<?, ?> record, Throwable cause, Headers headers) {
+        if (cause instanceof DeserializationException && !((DeserializationException) cause).isKey()) {
+            return ((DeserializationException) cause).getData();
+        }
+        Object value = record.value();
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        Header contentType = headers.lastHeader(EventSerializer.CONTENT_TYPE_HEADER);
+        if (contentType != null && EventBinaryCodec.supports(value)
+                && EventBinaryCodec.CONTENT_TYPE.equals(new String(contentType.value(), StandardCharsets.UTF_8))) {
+            return EventBinaryCodec.encode(value);
+        }
+        // JSON: the original type headers were copied along with the rest
+        return jsonSerializer.serialize(record.topic(), value);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.sapdashboard.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Replays dead letters to the topic they came from, value bytes and headers untouched
+ * (minus the kafka_dlt-* headers). Progress is committed under its own consumer group,
+ * so each dead letter is replayed once.
+ */
+@Component
+@Slf4j
+public class DeadLetterReplayer {
+
+    private static final String REPLAY_GROUP = "dashboard-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final KafkaTemplate<String, byte[]> deadLetterTemplate;
+
+    public DeadLetterReplayer(ConsumerFactory<String, Object> consumerFactory,
+                              @Qualifier("deadLetterKafkaTemplate") KafkaTemplate<String, byte[]> deadLetterTemplate) {
+        this.consumerFactory = consumerFactory;
+        this.deadLetterTemplate = deadLetterTemplate;
+    }
+
+    /**
+     * Replay up to max dead letters, in order, and commit past them
+     */
+    public synchronized Map<String, Object> replay(int max) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(max, 500)));
+
+        int replayed = 0;
+        int skipped = 0;
+        try (Consumer<String, Object> kafka = consumerFactory.createConsumer(REPLAY_GROUP, "dlt-replay", null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : kafka.partitionsFor(KafkaProducer.DLT_TOPIC)) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            // Assigned, not subscribed: no rebalance, but committed offsets of the group still apply
+            kafka.assign(partitions);
+
+            while (replayed + skipped < max) {
+                ConsumerRecords<String, Object> records = kafka.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> done = new HashMap<>();
+                for (ConsumerRecord<String, Object> record : records) {
+                    if (replayed + skipped >= max) {
+                        break;
+                    }
+                    String originalTopic = header(record.headers(), KafkaHeaders.DLT_ORIGINAL_TOPIC);
+                    if (originalTopic == null) {
+                        log.warn("Dead letter {}-{} has no original topic header, skipping", record.partition(), record.offset());
+                        skipped++;
+                    } else {
+                        sends.add(deadLetterTemplate.send(new ProducerRecord<>(originalTopic, null, record.key(),
+                                (byte[]) record.value(), withoutDeadLetterHeaders(record.headers()))));
+                        replayed++;
+                    }
+                    done.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                }
+                deadLetterTemplate.flush();
+                // Commit only once every replayed record is on the broker; records fetched past
+                // max are not committed and are read again by the next replay
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get();
+                kafka.commitSync(done);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while replaying dead letters", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to replay dead letters", e.getCause());
+        }
+
+        log.info("Replayed {} dead letters ({} skipped)", replayed, skipped);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "success");
+        result.put("replayed", replayed);
+        result.put("skipped", skipped);
+        return result;
+    }
+
+    private static Headers withoutDeadLetterHeaders(Headers headers) {
+        Headers copy = new RecordHeaders();
+        for (Header header : headers) {
+            if (!header.key().startsWith("kafka_dlt-")) {
+                copy.add(header);
+            }
+        }
+        return copy;
+    }
+
+    private static String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
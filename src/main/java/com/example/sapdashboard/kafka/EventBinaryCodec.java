@@ -0,0 +1,415 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.dto.RetryEventMessage;
+import com.example.sapdashboard.model.IntegrationEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding for the records we put on Kafka.
+ *
+ * Layout (schema version 1):
+ * <pre>
+ *   magic(1) version(1) type(1) fields...
+ * </pre>
+ * Strings are varint length + 1 (0 = null) followed by UTF-8 bytes. Status, integration name and
+ * payload format are dictionary codes from the tables below, with an inline string fallback for
+ * values not in the table. Timestamps are epoch millis (UTC). Payloads above a size threshold are
+ * deflated when that makes them smaller, and an original payload equal to the current one is
+ * written as a back-reference.
+ *
+ * Dictionary codes are part of the schema: only append to the tables, never reorder them.
+ */
+public final class EventBinaryCodec {
+
+    public static final String CONTENT_TYPE = "application/x-sap-event;v=1";
+
+    static final byte MAGIC = (byte) 0xE5;
+    static final byte VERSION = 1;
+
+    static final byte TYPE_INTEGRATION_EVENT = 1;
+    static final byte TYPE_RETRY_MESSAGE = 2;
+
+    private static final List<String> STATUSES = List.of("SUCCESS", "FAILED", "PENDING");
+    private static final List<String> INTEGRATIONS = List.of(
+            "Order-to-SAP", "Customer-Sync", "Inventory-Update", "Invoice-Processing");
+    private static final List<String> FORMATS = List.of("XML", "JSON");
+
+    private static final int DICT_NULL = 0;
+    private static final int DICT_INLINE = 0xFF;
+
+    private static final byte PAYLOAD_NULL = 0;
+    private static final byte PAYLOAD_RAW = 1;
+    private static final byte PAYLOAD_DEFLATED = 2;
+    private static final byte PAYLOAD_SAME_AS_PREVIOUS = 3;
+
+    private static final int COMPRESS_THRESHOLD = 512;
+
+    // Upper bound for a deflated payload's declared size unless the caller sets its own
+    public static final int DEFAULT_MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+
+    // Deflater/Inflater setup costs more than compressing a typical payload, so reuse one per thread
+    private static final ThreadLocal<Deflater> DEFLATER =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private EventBinaryCodec() {
+    }
+
+    public static boolean supports(Object value) {
+        return value instanceof IntegrationEvent || value instanceof RetryEventMessage;
+    }
+
+    public static byte[] encode(Object value) {
+        Writer out = new Writer();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        if (value instanceof IntegrationEvent) {
+            out.writeByte(TYPE_INTEGRATION_EVENT);
+            writeEvent(out, (IntegrationEvent) value);
+        } else if (value instanceof RetryEventMessage) {
+            out.writeByte(TYPE_RETRY_MESSAGE);
+            writeRetryMessage(out, (RetryEventMessage) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported type: " + value.getClass().getName());
+        }
+        return out.toByteArray();
+    }
+
+    public static Object decode(byte[] data) {
+        return decode(data, DEFAULT_MAX_PAYLOAD_BYTES);
+    }
+
+    /**
+     * Decode a record, rejecting compressed payloads that declare more than maxPayloadBytes once inflated.
+     * Lengths come from the wire, so every one is checked before anything is allocated for it.
+     */
+    public static Object decode(byte[] data, int maxPayloadBytes) {
+        Reader in = new Reader(data, maxPayloadBytes);
+        if (in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event record");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported event schema version: " + version);
+        }
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_INTEGRATION_EVENT:
+                return readEvent(in);
+            case TYPE_RETRY_MESSAGE:
+                return readRetryMessage(in);
+            default:
+                throw new IllegalArgumentException("Unknown record type: " + type);
+        }
+    }
+
+    // ===== RECORD LAYOUTS =====
+
+    private static void writeEvent(Writer out, IntegrationEvent event) {
+        out.writeNullableLong(event.getId());
+        out.writeString(event.getOrderId());
+        out.writeDictionary(STATUSES, event.getStatus());
+        out.writeString(event.getMessage());
+        out.writePayload(event.getPayload(), null);
+        out.writePayload(event.getOriginalPayload(), event.getPayload());
+        out.writeDictionary(FORMATS, event.getPayloadFormat());
+        out.writeVarLong(event.getRetryCount());
+        out.writePayload(event.getRetryHistory(), null);
+        out.writeString(event.getErrorDetails());
+        out.writeDictionary(INTEGRATIONS, event.getIntegrationName());
+        out.writeTimestamp(event.getCreatedAt());
+        out.writeTimestamp(event.getUpdatedAt());
+    }
+
+    private static IntegrationEvent readEvent(Reader in) {
+        IntegrationEvent event = new IntegrationEvent();
+        event.setId(in.readNullableLong());
+        event.setOrderId(in.readString());
+        event.setStatus(in.readDictionary(STATUSES));
+        event.setMessage(in.readString());
+        event.setPayload(in.readPayload(null));
+        event.setOriginalPayload(in.readPayload(event.getPayload()));
+        event.setPayloadFormat(in.readDictionary(FORMATS));
+        event.setRetryCount((int) in.readVarLong());
+        event.setRetryHistory(in.readPayload(null));
+        event.setErrorDetails(in.readString());
+        event.setIntegrationName(in.readDictionary(INTEGRATIONS));
+        event.setCreatedAt(in.readTimestamp());
+        event.setUpdatedAt(in.readTimestamp());
+        return event;
+    }
+
+    private static void writeRetryMessage(Writer out, RetryEventMessage message) {
+        out.writeString(message.getOrderId());
+        out.writeDictionary(STATUSES, message.getOriginalStatus());
+        out.writePayload(message.getUpdatedPayload(), null);
+        out.writePayload(message.getOriginalPayload(), message.getUpdatedPayload());
+        out.writeString(message.getOriginalErrorDetails());
+        out.writeNullableLong(message.getRetryAttempt() == null ? null : message.getRetryAttempt().longValue());
+        out.writeTimestamp(message.getRetryTimestamp());
+        out.writeString(message.getUserNotes());
+        out.writeDictionary(FORMATS, message.getPayloadFormat());
+    }
+
+    private static RetryEventMessage readRetryMessage(Reader in) {
+        RetryEventMessage message = new RetryEventMessage();
+        message.setOrderId(in.readString());
+        message.setOriginalStatus(in.readDictionary(STATUSES));
+        message.setUpdatedPayload(in.readPayload(null));
+        message.setOriginalPayload(in.readPayload(message.getUpdatedPayload()));
+        message.setOriginalErrorDetails(in.readString());
+        Long attempt = in.readNullableLong();
+        message.setRetryAttempt(attempt == null ? null : attempt.intValue());
+        message.setRetryTimestamp(in.readTimestamp());
+        message.setUserNotes(in.readString());
+        message.setPayloadFormat(in.readDictionary(FORMATS));
+        return message;
+    }
+
+    // ===== PRIMITIVES =====
+
+    private static final class Writer {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+        void writeByte(int value) {
+            buffer.write(value);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.write((int) value);
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            buffer.write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            buffer.write(bytes, 0, bytes.length);
+        }
+
+        void writeNullableLong(Long value) {
+            if (value == null) {
+                writeByte(0);
+            } else {
+                writeByte(1);
+                writeVarLong((value << 1) ^ (value >> 63));
+            }
+        }
+
+        void writeTimestamp(LocalDateTime value) {
+            writeNullableLong(value == null ? null : value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+
+        void writeDictionary(List<String> dictionary, String value) {
+            if (value == null) {
+                writeByte(DICT_NULL);
+                return;
+            }
+            int index = dictionary.indexOf(value);
+            if (index >= 0) {
+                writeByte(index + 1);
+            } else {
+                writeByte(DICT_INLINE);
+                writeString(value);
+            }
+        }
+
+        void writePayload(String value, String previous) {
+            if (value == null) {
+                writeByte(PAYLOAD_NULL);
+                return;
+            }
+            if (previous != null && Objects.equals(value, previous)) {
+                writeByte(PAYLOAD_SAME_AS_PREVIOUS);
+                return;
+            }
+            byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+            if (raw.length >= COMPRESS_THRESHOLD) {
+                byte[] deflated = deflate(raw);
+                if (deflated.length < raw.length) {
+                    writeByte(PAYLOAD_DEFLATED);
+                    writeVarLong(raw.length);
+                    writeBytes(deflated);
+                    return;
+                }
+            }
+            writeByte(PAYLOAD_RAW);
+            writeBytes(raw);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+        private final int maxPayloadBytes;
+
+        Reader(byte[] data, int maxPayloadBytes) {
+            this.buffer = ByteBuffer.wrap(data);
+            this.maxPayloadBytes = maxPayloadBytes;
+        }
+
+        byte readByte() {
+            return buffer.get();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint");
+                }
+            }
+        }
+
+        byte[] readBytes() {
+            byte[] bytes = new byte[remainingLength(readVarLong())];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[remainingLength(length - 1)];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * A length prefix can never exceed what is left of the record
+         */
+        private int remainingLength(long length) {
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Length " + length + " exceeds the "
+                        + buffer.remaining() + " bytes left in the record");
+            }
+            return (int) length;
+        }
+
+        Long readNullableLong() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            long zigzag = readVarLong();
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        LocalDateTime readTimestamp() {
+            Long millis = readNullableLong();
+            return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        }
+
+        String readDictionary(List<String> dictionary) {
+            int code = buffer.get() & 0xFF;
+            if (code == DICT_NULL) {
+                return null;
+            }
+            if (code == DICT_INLINE) {
+                return readString();
+            }
+            if (code > dictionary.size()) {
+                throw new IllegalArgumentException("Unknown dictionary code: " + code);
+            }
+            return dictionary.get(code - 1);
+        }
+
+        String readPayload(String previous) {
+            byte kind = buffer.get();
+            switch (kind) {
+                case PAYLOAD_NULL:
+                    return null;
+                case PAYLOAD_SAME_AS_PREVIOUS:
+                    return previous;
+                case PAYLOAD_RAW:
+                    return new String(readBytes(), StandardCharsets.UTF_8);
+                case PAYLOAD_DEFLATED:
+                    long rawLength = readVarLong();
+                    if (rawLength < 0 || rawLength > maxPayloadBytes) {
+                        throw new IllegalArgumentException("Compressed payload declares " + rawLength
+                                + " bytes, limit is " + maxPayloadBytes);
+                    }
+                    return new String(inflate(readBytes(), (int) rawLength), StandardCharsets.UTF_8);
+                default:
+                    throw new IllegalArgumentException("Unknown payload encoding: " + kind);
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = DEFLATER.get();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] out = new byte[raw.length];
+            int length = 0;
+            while (!deflater.finished() && length < out.length) {
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            // Not smaller than the input: let the caller store it raw
+            return deflater.finished() ? Arrays.copyOf(out, length) : raw;
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated, int rawLength) {
+        Inflater inflater = INFLATER.get();
+        try {
+            inflater.setInput(deflated);
+            byte[] out = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(out, length, rawLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != rawLength) {
+                throw new IllegalArgumentException("Truncated compressed payload");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed payload", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
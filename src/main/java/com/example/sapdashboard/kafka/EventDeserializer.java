@@ -0,0 +1,57 @@
+package com.example.sapdashboard.kafka;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value deserializer for our topics.
+ * Records tagged with the binary content-type are decoded with {@link EventBinaryCodec};
+ * untagged records are read as JSON, so JSON producers keep working during migration.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    /**
+     * Largest payload a binary record may declare once inflated
+     */
+    public static final String MAX_PAYLOAD_BYTES = "sap.event.binary.max.payload.bytes";
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private int maxPayloadBytes = EventBinaryCodec.DEFAULT_MAX_PAYLOAD_BYTES;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+        Object max = configs.get(MAX_PAYLOAD_BYTES);
+        if (max != null) {
+            maxPayloadBytes = Integer.parseInt(max.toString().trim());
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers.lastHeader(EventSerializer.CONTENT_TYPE_HEADER);
+        if (contentType != null && EventBinaryCodec.CONTENT_TYPE.equals(
+                new String(contentType.value(), StandardCharsets.UTF_8))) {
+            return EventBinaryCodec.decode(data, maxPayloadBytes);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.sapdashboard.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value serializer for our topics.
+ * Events and retry messages use {@link EventBinaryCodec} when binary encoding is on and are
+ * tagged with a content-type header; anything else (or binary off) falls back to JSON.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final boolean binary;
+
+    public EventSerializer(boolean binary) {
+        this.binary = binary;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (binary && EventBinaryCodec.supports(data)) {
+            headers.remove(CONTENT_TYPE_HEADER);
+            headers.add(CONTENT_TYPE_HEADER, EventBinaryCodec.CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+            return EventBinaryCodec.encode(data);
+        }
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,574 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.jfr.ConsumeJfrEvent;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.service.EventService;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Per-integration bulkheads for records from sap-integration-events.
+ *
+ * The listener dispatches each event by integrationName into its lane: a bounded queue with its
+ * own worker threads (an orderId always goes to the same worker, so its events stay in order).
+ * Workers save in turns of up to batch-size events, each turn one batched insert
+ * (EventService#saveConsumedEvents), and every turn needs one of the shared db-permits, granted in
+ * weighted fair order (WeightedFairGate): a lane replaying a backlog gets its weight's share of the
+ * database while the other lanes keep saving.
+ *
+ * A record is done once its event is saved or the broker has acked its dead letter. Saves are
+ * retried in place like the listener's error handler (dashboard.dlt.retry.*), with the permit
+ * released between attempts; a failed turn is saved again one event at a time, so only the
+ * failing event is retried. Offsets are tracked here per partition, across the lanes: only the
+ * last record of the done prefix is acknowledged, so the commit never passes a record still in a
+ * lane, but the container keeps polling and the other lanes keep saving while a slow lane works.
+ * Records still queued at shutdown, or when their partition is revoked, are redelivered.
+ */
+@Component
+@Slf4j
+public class IngestBulkheads implements ConsumerRebalanceListener {
+
+    // Events without an integrationName, and integrations beyond max-lanes
+    static final String OTHER = "<other>";
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final Settings settings;
+    private final Consumer<List<IntegrationEvent>> save;
+    private final BiConsumer<ConsumerRecord<?, ?>, Exception> deadLetters;
+    private final long retryAttempts;
+    private final long retryBackoffMs;
+    private final WeightedFairGate gate;
+
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TopicPartition, PartitionProgress> partitions = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    @Autowired
+    public IngestBulkheads(EventService eventService, DeadLetterPublisher deadLetterPublisher, Environment environment,
+                           @Value("${dashboard.dlt.retry.attempts:2}") long retryAttempts,
+                           @Value("${dashboard.dlt.retry.backoff-ms:500}") long retryBackoffMs) {
+        this(Binder.get(environment).bind("dashboard.ingest.bulkheads", Settings.class).orElseGet(Settings::new),
+                eventService::saveConsumedEvents, deadLetterPublisher, retryAttempts, retryBackoffMs);
+    }
+
+    IngestBulkheads(Settings settings, Consumer<List<IntegrationEvent>> save,
+                    BiConsumer<ConsumerRecord<?, ?>, Exception> deadLetters, long retryAttempts, long retryBackoffMs) {
+        this.settings = settings;
+        this.save = save;
+        this.deadLetters = deadLetters;
+        this.retryAttempts = retryAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.gate = new WeightedFairGate(settings.getDbPermits());
+        // Invalid lane settings fail here rather than on the first record
+        newLane(OTHER);
+        settings.getLanes().keySet().forEach(this::newLane);
+        if (settings.isEnabled()) {
+            log.info("Ingest bulkheads: {} db permits, lane overrides {}", settings.getDbPermits(),
+                    settings.getLanes().keySet());
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    // ===== INTAKE =====
+
+    /**
+     * Queue the event in its integration's lane; ack is acknowledged once it and every earlier
+     * record of its partition are saved or dead-lettered. Blocks while that lane's queue is full.
+     */
+    public void dispatch(IntegrationEvent event, ConsumerRecord<?, ?> record, Acknowledgment ack, ConsumeJfrEvent jfr)
+            throws InterruptedException {
+        Lane lane = lane(event.getIntegrationName());
+        String orderId = event.getOrderId();
+        BlockingQueue<Task> queue = lane.queues[Math.floorMod(orderId == null ? 0 : orderId.hashCode(), lane.queues.length)];
+        Task task = new Task(event, record, jfr);
+        progress(record).register(record.offset(), ack);
+        if (!queue.offer(task)) {
+            long blockedSince = System.nanoTime();
+            while (!queue.offer(task, 100, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    throw new IllegalStateException("Ingest bulkheads are shutting down");
+                }
+            }
+            lane.intakeBlockedNanos.add(System.nanoTime() - blockedSince);
+        }
+        lane.enqueued.increment();
+        lane.maxDepth.accumulateAndGet(lane.depth(), Math::max);
+    }
+
+    /**
+     * Acknowledge a record the listener handled itself (tombstone, skipped), in order with the
+     * records of its partition that are still in the lanes
+     */
+    public void acknowledgeInOrder(ConsumerRecord<?, ?> record, Acknowledgment ack) {
+        PartitionProgress progress = progress(record);
+        progress.register(record.offset(), ack);
+        done(progress, record.offset(), null);
+    }
+
+    private PartitionProgress progress(ConsumerRecord<?, ?> record) {
+        return partitions.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                tp -> new PartitionProgress());
+    }
+
+    /**
+     * Records of a revoked partition are redelivered to its new owner from the last commit;
+     * whatever the lanes still finish for it is not acknowledged any more
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            PartitionProgress progress = partitions.remove(partition);
+            if (progress != null) {
+                progress.revoke();
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> assigned) {
+    }
+
+    private Lane lane(String integrationName) {
+        String name = integrationName == null || integrationName.isBlank() ? OTHER : integrationName;
+        Lane lane = lanes.get(name);
+        if (lane != null) {
+            return lane;
+        }
+        synchronized (lanes) {
+            lane = lanes.get(name);
+            if (lane == null) {
+                if (!OTHER.equals(name) && lanes.size() >= settings.getMaxLanes()) {
+                    return lane(null);
+                }
+                lane = startLane(name);
+                lanes.put(name, lane);
+            }
+            return lane;
+        }
+    }
+
+    private Lane newLane(String name) {
+        LaneSettings overrides = settings.getLanes().getOrDefault(name, new LaneSettings());
+        return new Lane(name,
+                overrides.getWeight() != null ? overrides.getWeight() : settings.getWeight(),
+                overrides.getWorkers() != null ? overrides.getWorkers() : settings.getWorkers(),
+                overrides.getQueueCapacity() != null ? overrides.getQueueCapacity() : settings.getQueueCapacity(),
+                overrides.getBatchSize() != null ? overrides.getBatchSize() : settings.getBatchSize());
+    }
+
+    private Lane startLane(String name) {
+        Lane lane = newLane(name);
+        for (int i = 0; i < lane.queues.length; i++) {
+            BlockingQueue<Task> queue = lane.queues[i];
+            Thread worker = new Thread(() -> work(lane, queue), "bulkhead-" + name + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Started ingest lane {} (weight {}, {} workers, capacity {}, batch size {})",
+                name, lane.weight, lane.queues.length, lane.capacity, lane.batchSize);
+        return lane;
+    }
+
+    // ===== WORKERS =====
+
+    private void work(Lane lane, BlockingQueue<Task> queue) {
+        List<Task> batch = new ArrayList<>(lane.batchSize);
+        try {
+            while (running) {
+                Task first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, lane.batchSize - 1);
+                lane.inFlight.addAndGet(batch.size());
+                try {
+                    saveBatch(lane, batch);
+                } finally {
+                    lane.inFlight.addAndGet(-batch.size());
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Save the batch as one turn with a batched insert. If that fails, the events are saved one
+     * at a time in turns, and a failing event is retried in place, after the permit is given back,
+     * before the events behind it.
+     */
+    private void saveBatch(Lane lane, List<Task> batch) throws InterruptedException {
+        int next = 0;
+        int attempts = 0;
+        boolean oneByOne = batch.size() == 1;
+        while (next < batch.size()) {
+            long waitStart = System.nanoTime();
+            gate.acquire(lane.name, lane.weight, batch.size() - next);
+            lane.dbWaitNanos.add(System.nanoTime() - waitStart);
+            try {
+                if (!oneByOne) {
+                    try {
+                        save(lane, batch);
+                        for (Task task : batch) {
+                            done(lane, task);
+                        }
+                        next = batch.size();
+                    } catch (RuntimeException e) {
+                        oneByOne = true;
+                        log.debug("Batched save of {} events failed in lane {}, saving them one at a time: {}",
+                                batch.size(), lane.name, e.toString());
+                    }
+                }
+                while (next < batch.size()) {
+                    Task task = batch.get(next);
+                    try {
+                        save(lane, List.of(task));
+                    } catch (RuntimeException e) {
+                        if (attempts < retryAttempts && isRetryable(e)) {
+                            attempts++;
+                            lane.retried.increment();
+                            log.debug("Save of {} failed in lane {}, attempt {}: {}",
+                                    task.event.getOrderId(), lane.name, attempts, e.toString());
+                            break;
+                        }
+                        deadLetter(lane, task, e);
+                    }
+                    // Outside the save's retries: a failed ack must not save the event again
+                    done(lane, task);
+                    next++;
+                    attempts = 0;
+                }
+            } finally {
+                gate.release();
+            }
+            if (next < batch.size()) {
+                Thread.sleep(retryBackoffMs);
+            }
+        }
+    }
+
+    private void save(Lane lane, List<Task> turn) {
+        List<IntegrationEvent> events = new ArrayList<>(turn.size());
+        for (Task task : turn) {
+            events.add(task.event);
+        }
+        long start = System.nanoTime();
+        save.accept(events);
+        long end = System.nanoTime();
+        lane.saved.add(turn.size());
+        lane.turns.increment();
+        for (Task task : turn) {
+            lane.record(start - task.enqueuedAt, end - task.enqueuedAt);
+            task.jfr.commitPhases(task.event.getOrderId(), task.event.getPayload(), false, lane.name,
+                    start - task.enqueuedAt, end - start);
+        }
+    }
+
+    /**
+     * Hand the record to the dead-letter publisher, which returns once the broker has acked the
+     * dead letter. A failed send is tried again until it succeeds or the bulkheads stop; the record
+     * stays unacknowledged until then, so it is redelivered rather than lost.
+     */
+    private void deadLetter(Lane lane, Task task, RuntimeException cause) throws InterruptedException {
+        while (true) {
+            try {
+                deadLetters.accept(task.record, cause);
+                lane.deadLettered.increment();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    throw new InterruptedException("Ingest bulkheads are shutting down");
+                }
+                log.warn("Dead-lettering {} from lane {} failed, trying again: {}", task.event.getOrderId(), lane.name, e.toString());
+                Thread.sleep(Math.max(retryBackoffMs, 1000));
+            }
+        }
+    }
+
+    private void done(Lane lane, Task task) {
+        PartitionProgress progress = partitions.get(new TopicPartition(task.record.topic(), task.record.partition()));
+        if (progress != null) {
+            done(progress, task.record.offset(), lane);
+        }
+    }
+
+    /**
+     * Mark the offset done and acknowledge the last record of the partition's done prefix, if
+     * that moved. Acks are sent under the partition's lock, so they reach the container in offset
+     * order. After a rebalance took the partition away the container may reject the ack; the new
+     * owner redelivers the record from the last commit.
+     */
+    private void done(PartitionProgress progress, long offset, Lane lane) {
+        synchronized (progress) {
+            Acknowledgment ack = progress.complete(offset);
+            if (ack == null) {
+                return;
+            }
+            try {
+                ack.acknowledge();
+            } catch (RuntimeException e) {
+                if (lane != null) {
+                    lane.ackFailed.increment();
+                }
+                log.warn("Could not acknowledge offset {} of {}: {}", progress.acknowledged, lane == null ? "listener" : lane.name,
+                        e.toString());
+            }
+        }
+    }
+
+    // Same classification as KafkaConfig#kafkaErrorHandler
+    private static boolean isRetryable(RuntimeException e) {
+        return !(e instanceof IllegalArgumentException) && !(e instanceof DataIntegrityViolationException);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        synchronized (lanes) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    // ===== METRICS =====
+
+    /**
+     * Queue depth, throughput and latency per lane, and the state of the database turns
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> byLane = new TreeMap<>();
+        long saved = 0;
+        for (Lane lane : lanes.values()) {
+            saved += lane.saved.sum();
+        }
+        for (Lane lane : lanes.values()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("weight", lane.weight);
+            row.put("workers", lane.queues.length);
+            row.put("batchSize", lane.batchSize);
+            row.put("capacity", lane.capacity);
+            row.put("depth", lane.depth());
+            row.put("maxDepth", lane.maxDepth.get());
+            row.put("inFlight", lane.inFlight.get());
+            row.put("enqueued", lane.enqueued.sum());
+            row.put("saved", lane.saved.sum());
+            row.put("turns", lane.turns.sum());
+            row.put("savedShare", saved == 0 ? 0.0 : Math.round(lane.saved.sum() * 1000.0 / saved) / 1000.0);
+            row.put("retried", lane.retried.sum());
+            row.put("deadLettered", lane.deadLettered.sum());
+            row.put("ackFailed", lane.ackFailed.sum());
+            row.put("intakeBlockedMs", TimeUnit.NANOSECONDS.toMillis(lane.intakeBlockedNanos.sum()));
+            row.put("dbWaitMs", TimeUnit.NANOSECONDS.toMillis(lane.dbWaitNanos.sum()));
+            row.putAll(lane.latencies());
+            byLane.put(lane.name, row);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", settings.isEnabled());
+        response.put("dbPermits", gate.getPermits());
+        response.put("dbPermitsInUse", gate.getInUse());
+        response.put("dbWaiting", gate.getWaiting());
+        long uncommitted = 0;
+        for (PartitionProgress progress : partitions.values()) {
+            uncommitted += progress.size();
+        }
+        response.put("unacknowledgedRecords", uncommitted);
+        response.put("lanes", byLane);
+        return response;
+    }
+
+    private static class Task {
+        final IntegrationEvent event;
+        final ConsumerRecord<?, ?> record;
+        final ConsumeJfrEvent jfr;
+        final long enqueuedAt = System.nanoTime();
+
+        Task(IntegrationEvent event, ConsumerRecord<?, ?> record, ConsumeJfrEvent jfr) {
+            this.event = event;
+            this.record = record;
+            this.jfr = jfr;
+        }
+    }
+
+    /**
+     * Offsets of one partition handed out (to the lanes or the listener) and not yet acknowledged,
+     * guarded by this
+     */
+    private static class PartitionProgress {
+        // offset -> ack of every record not acknowledged yet, and those of them already done
+        private final TreeMap<Long, Acknowledgment> pending = new TreeMap<>();
+        private final Map<Long, Acknowledgment> done = new HashMap<>();
+        private boolean revoked;
+        long acknowledged = -1;
+
+        synchronized void register(long offset, Acknowledgment ack) {
+            pending.put(offset, ack);
+        }
+
+        /**
+         * The ack of the last record of the done prefix, if completing offset extended it
+         */
+        synchronized Acknowledgment complete(long offset) {
+            Acknowledgment ack = pending.get(offset);
+            if (revoked || ack == null) {
+                return null;
+            }
+            done.put(offset, ack);
+            Acknowledgment last = null;
+            while (!pending.isEmpty() && done.containsKey(pending.firstKey())) {
+                long first = pending.pollFirstEntry().getKey();
+                last = done.remove(first);
+                acknowledged = first;
+            }
+            return last;
+        }
+
+        synchronized void revoke() {
+            revoked = true;
+            pending.clear();
+            done.clear();
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+    }
+
+    private static class Lane {
+        final String name;
+        final double weight;
+        final int capacity;
+        final int batchSize;
+        // One queue per worker
+        final BlockingQueue<Task>[] queues;
+
+        final LongAdder enqueued = new LongAdder();
+        final LongAdder saved = new LongAdder();
+        final LongAdder turns = new LongAdder();
+        final LongAdder retried = new LongAdder();
+        final LongAdder deadLettered = new LongAdder();
+        final LongAdder ackFailed = new LongAdder();
+        final LongAdder intakeBlockedNanos = new LongAdder();
+        final LongAdder dbWaitNanos = new LongAdder();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        // Most recent queue waits and enqueue-to-saved latencies, guarded by this
+        private final long[] queueNanos = new long[LATENCY_SAMPLES];
+        private final long[] totalNanos = new long[LATENCY_SAMPLES];
+        private long samples;
+
+        @SuppressWarnings("unchecked")
+        Lane(String name, double weight, int workers, int capacity, int batchSize) {
+            if (weight <= 0 || workers <= 0 || capacity <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Ingest lane " + name
+                        + ": weight, workers, queue-capacity and batch-size must be positive");
+            }
+            this.name = name;
+            this.weight = weight;
+            this.capacity = capacity;
+            this.batchSize = batchSize;
+            this.queues = new BlockingQueue[workers];
+            for (int i = 0; i < workers; i++) {
+                queues[i] = new ArrayBlockingQueue<>(Math.max(1, capacity / workers));
+            }
+        }
+
+        int depth() {
+            int depth = 0;
+            for (BlockingQueue<Task> queue : queues) {
+                depth += queue.size();
+            }
+            return depth;
+        }
+
+        synchronized void record(long queueWait, long total) {
+            int slot = (int) (samples++ % LATENCY_SAMPLES);
+            queueNanos[slot] = queueWait;
+            totalNanos[slot] = total;
+        }
+
+        synchronized Map<String, Object> latencies() {
+            int count = (int) Math.min(samples, LATENCY_SAMPLES);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("queueMs", percentiles(Arrays.copyOf(queueNanos, count)));
+            result.put("latencyMs", percentiles(Arrays.copyOf(totalNanos, count)));
+            return result;
+        }
+
+        private static Map<String, Object> percentiles(long[] nanos) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            if (nanos.length == 0) {
+                return result;
+            }
+            Arrays.sort(nanos);
+            result.put("p50", millis(nanos[(int) Math.ceil(0.50 * nanos.length) - 1]));
+            result.put("p99", millis(nanos[(int) Math.ceil(0.99 * nanos.length) - 1]));
+            result.put("max", millis(nanos[nanos.length - 1]));
+            return result;
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+
+    /**
+     * dashboard.ingest.bulkheads.*; lanes.&lt;integrationName&gt;.* override the defaults per lane
+     */
+    @Data
+    public static class Settings {
+        private boolean enabled = true;
+        private int queueCapacity = 500;
+        private int workers = 1;
+        private int batchSize = 50;
+        private double weight = 1;
+        private int dbPermits = 4;
+        private int maxLanes = 32;
+        private Map<String, LaneSettings> lanes = new HashMap<>();
+    }
+
+    @Data
+    public static class LaneSettings {
+        private Double weight;
+        private Integer workers;
+        private Integer queueCapacity;
+        private Integer batchSize;
+    }
+}
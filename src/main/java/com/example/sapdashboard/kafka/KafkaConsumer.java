@@ -1,11 +1,16 @@
 package com.example.sapdashboard.kafka;
 
 
+import com.example.sapdashboard.jfr.ConsumeJfrEvent;
 import com.example.sapdashboard.model.IntegrationEvent;
 import com.example.sapdashboard.service.EventService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
 // @Service marks this as a service
@@ -18,20 +23,69 @@ public class KafkaConsumer {
 
     // Inject the EventService to save events
     private final EventService eventService;
+    // Per-integration lanes that save and acknowledge the records (dashboard.ingest.bulkheads.enabled)
+    private final IngestBulkheads bulkheads;
 
     // ===== LISTEN FOR EVENTS FROM KAFKA =====
     // @KafkaListener tells Spring to listen to a specific topic
     @KafkaListener(
             // Listen to this topic
-            topics = "sap-integration-events",
+            topics = KafkaProducer.EVENTS_TOPIC,
             // Consumer group ID (important for Kafka)
-            groupId = "dashboard-group"
+            groupId = "dashboard-group",
+            // Records are acknowledged once saved; with the bulkheads, in offset order (see KafkaConfig)
+            containerFactory = "eventsListenerContainerFactory"
     )
     // This method is called every time a new message arrives
-    public void consume(IntegrationEvent event) {
+    // Failures are retried in place a few times, then dead-lettered (see KafkaConfig#kafkaErrorHandler)
+    public void consume(@Payload(required = false) IntegrationEvent event,
+                        @Header(name = KafkaProducer.SOURCE_HEADER, required = false) byte[] source,
+                        ConsumerRecord<?, ?> record,
+                        Acknowledgment ack) throws InterruptedException {
+        // Tombstones on the compacted topic carry no event
+        if (event == null) {
+            acknowledge(record, ack);
+            return;
+        }
         log.info("Received event from Kafka: {}", event.getOrderId());
 
+        // Would break the NOT NULL constraints; not worth retrying
+        if (event.getOrderId() == null || event.getStatus() == null) {
+            throw new IllegalArgumentException("Event without orderId or status");
+        }
+
+        // Flight recorder event (see FlightRecorderService); a no-op unless a recording is running
+        ConsumeJfrEvent jfr = new ConsumeJfrEvent();
+        jfr.begin();
+        String payload = event.getPayload();
+
+        // In direct ingest mode this instance's REST path already saved the events it published
+        if (!eventService.shouldConsume(KafkaProducer.sourceOf(source))) {
+            log.debug("Skipping self-published event: {}", event.getOrderId());
+            jfr.commitPhases(event.getOrderId(), payload, true, 0);
+            acknowledge(record, ack);
+            return;
+        }
+
+        // Saved and acknowledged by the event's integration lane
+        if (bulkheads.isEnabled()) {
+            bulkheads.dispatch(event, record, ack, jfr);
+            return;
+        }
+
         // Save the event to the database
+        long saveStart = System.nanoTime();
         eventService.saveEvent(event);
+        jfr.commitPhases(event.getOrderId(), payload, false, System.nanoTime() - saveStart);
+        ack.acknowledge();
+    }
+
+    // With the bulkheads, earlier records of the partition may still be in a lane
+    private void acknowledge(ConsumerRecord<?, ?> record, Acknowledgment ack) {
+        if (bulkheads.isEnabled()) {
+            bulkheads.acknowledgeInOrder(record, ack);
+        } else {
+            ack.acknowledge();
+        }
     }
 }
@@ -1,18 +1,50 @@
 package com.example.sapdashboard.kafka;
 
+import com.example.sapdashboard.dto.RetryResultMessage;
 import com.example.sapdashboard.model.IntegrationEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaProducer {
 
+    public static final String EVENTS_TOPIC = "sap-integration-events";
+    public static final String RETRY_TOPIC = "sap-integration-order-retry";
+    public static final String RETRY_RESULT_TOPIC = "sap-integration-order-retry-result";
+    public static final String DLT_TOPIC = "sap-integration-dlt";
+
+    /**
+     * Header naming where a record on the events topic came from
+     */
+    public static final String SOURCE_HEADER = "x-event-source";
+
+    /**
+     * Source marker prefix for events received through the dashboard REST API
+     */
+    public static final String SOURCE_REST = "dashboard-rest";
+
+    /**
+     * Source marker prefix for state snapshots (status changes) published for materialized views;
+     * they describe events that already exist, so the ingest consumer never saves them
+     */
+    public static final String SOURCE_STATE = "dashboard-state";
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    // Distinguishes this instance's records from other replicas publishing to the same topic
+    @Value("${dashboard.instance-id:${random.uuid}}")
+    private String instanceId;
+
     /**
      * Send event to Kafka topic
      */
@@ -25,13 +57,50 @@ public class KafkaProducer {
      * Send to main events topic
      */
     public void sendToEventsTopic(IntegrationEvent event) {
-        sendEvent("sap-integration-events", event.getOrderId(), event);
+        sendEvent(EVENTS_TOPIC, event.getOrderId(), event);
+    }
+
+    /**
+     * Send to main events topic with a source marker header
+     */
+    public CompletableFuture<SendResult<String, Object>> sendToEventsTopic(IntegrationEvent event, String source) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(EVENTS_TOPIC, event.getOrderId(), event);
+        record.headers().add(SOURCE_HEADER, source.getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
     }
 
     /**
      * Send to retry topic
      */
     public void sendToRetryTopic(String key, Object message) {
-        kafkaTemplate.send("sap-integration-order-retry", key, message);
+        kafkaTemplate.send(RETRY_TOPIC, key, message);
+    }
+
+    /**
+     * Send to retry result topic
+     */
+    public void sendToRetryResultTopic(RetryResultMessage result) {
+        kafkaTemplate.send(RETRY_RESULT_TOPIC, result.getOrderId(), result);
+    }
+
+    /**
+     * Source marker for events this instance received through the REST API
+     */
+    public String restSource() {
+        return SOURCE_REST + ":" + instanceId;
+    }
+
+    /**
+     * Source marker for state snapshots published by this instance
+     */
+    public String stateSource() {
+        return SOURCE_STATE + ":" + instanceId;
+    }
+
+    /**
+     * Read the source marker of a consumed record (null if absent)
+     */
+    public static String sourceOf(byte[] header) {
+        return header == null ? null : new String(header, StandardCharsets.UTF_8);
     }
 }
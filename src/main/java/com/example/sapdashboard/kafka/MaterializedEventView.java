@@ -0,0 +1,278 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.service.StoreVersion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Latest state per orderId, built by reading the whole compacted events topic.
+ *
+ * Every instance reads all partitions itself (assign, not subscribe), outside the shared
+ * consumer group, so all replicas converge on the same view. Until the consumer has caught up
+ * with the end offsets seen at startup, /health/ready reports the instance as not ready.
+ *
+ * Events keep the id they had on the replica that published them, which means nothing to other
+ * replicas' stores: detail and payload reads are served from the view by orderId, and writes go
+ * to the local row only when this replica has one (EventService#resolveEventId). The replica that
+ * last published an order is remembered so the error can name it.
+ *
+ * Enabled with dashboard.view.mode=materialized.
+ */
+@Component
+@ConditionalOnProperty(name = "dashboard.view.mode", havingValue = "materialized")
+@RequiredArgsConstructor
+@Slf4j
+public class MaterializedEventView implements SmartLifecycle {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long METADATA_RETRY_MS = 5000;
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final StoreVersion storeVersion;
+
+    private final Map<String, IntegrationEvent> latestByOrderId = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> countByStatus = new ConcurrentHashMap<>();
+    private final Map<String, String> publisherByOrderId = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean caughtUp;
+    private volatile Consumer<String, Object> consumer;
+    private Thread thread;
+
+    // ===== LIFECYCLE =====
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "materialized-event-view");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Consumer<String, Object> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    private void run() {
+        Properties overrides = new Properties();
+        // Assigned partitions only: never commit, always rebuild from the beginning
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<String, Object> kafka = consumerFactory.createConsumer(null, "materialized-view", null, overrides)) {
+            consumer = kafka;
+            List<TopicPartition> partitions = awaitPartitions(kafka);
+            if (partitions.isEmpty()) {
+                return;
+            }
+            kafka.assign(partitions);
+            kafka.seekToBeginning(partitions);
+            Map<TopicPartition, Long> catchUpTargets = new HashMap<>(kafka.endOffsets(partitions));
+            log.info("Materializing {} from {} partitions, catch-up targets {}",
+                    KafkaProducer.EVENTS_TOPIC, partitions.size(), catchUpTargets);
+
+            while (running) {
+                try {
+                    ConsumerRecords<String, Object> records = kafka.poll(POLL_TIMEOUT);
+                    for (ConsumerRecord<String, Object> record : records) {
+                        apply(record);
+                    }
+                    if (!records.isEmpty()) {
+                        storeVersion.bump();
+                    }
+                } catch (RecordDeserializationException e) {
+                    log.warn("Skipping undecodable record at {}-{}", e.topicPartition(), e.offset(), e);
+                    kafka.seek(e.topicPartition(), e.offset() + 1);
+                }
+                if (!caughtUp && reached(kafka, catchUpTargets)) {
+                    caughtUp = true;
+                    log.info("Materialized view caught up: {} orders", latestByOrderId.size());
+                }
+            }
+        } catch (WakeupException e) {
+            // stop() was called
+        } catch (RuntimeException e) {
+            log.error("Materialized view consumer stopped", e);
+        } finally {
+            consumer = null;
+        }
+    }
+
+    /**
+     * Partitions of the events topic, retrying while the topic does not exist yet (partitionsFor
+     * returns null) or the broker cannot be reached. Empty only when stopped.
+     */
+    private List<TopicPartition> awaitPartitions(Consumer<String, Object> kafka) {
+        while (running) {
+            try {
+                List<PartitionInfo> infos = kafka.partitionsFor(KafkaProducer.EVENTS_TOPIC);
+                if (infos != null && !infos.isEmpty()) {
+                    List<TopicPartition> partitions = new ArrayList<>(infos.size());
+                    for (PartitionInfo info : infos) {
+                        partitions.add(new TopicPartition(info.topic(), info.partition()));
+                    }
+                    return partitions;
+                }
+                log.warn("Topic {} not found, retrying in {} ms", KafkaProducer.EVENTS_TOPIC, METADATA_RETRY_MS);
+            } catch (TimeoutException e) {
+                log.warn("No metadata for {}, retrying in {} ms", KafkaProducer.EVENTS_TOPIC, METADATA_RETRY_MS, e);
+            }
+            try {
+                Thread.sleep(METADATA_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return List.of();
+    }
+
+    private boolean reached(Consumer<String, Object> kafka, Map<TopicPartition, Long> targets) {
+        for (Map.Entry<TopicPartition, Long> target : targets.entrySet()) {
+            if (kafka.position(target.getKey()) < target.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(ConsumerRecord<String, Object> record) {
+        String key = record.key();
+        if (key == null) {
+            return;
+        }
+        // ErrorHandlingDeserializer: undecodable records arrive as null values with an exception header
+        if (record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+            log.warn("Skipping undecodable record at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+        if (record.value() == null) {
+            // Tombstone: compaction will drop the key, so do we
+            IntegrationEvent removed = latestByOrderId.remove(key);
+            publisherByOrderId.remove(key);
+            if (removed != null) {
+                counter(removed.getStatus()).decrement();
+            }
+            return;
+        }
+        if (!(record.value() instanceof IntegrationEvent)) {
+            return;
+        }
+        IntegrationEvent event = (IntegrationEvent) record.value();
+        IntegrationEvent previous = latestByOrderId.put(key, event);
+        Header source = record.headers().lastHeader(KafkaProducer.SOURCE_HEADER);
+        if (source != null) {
+            String value = new String(source.value(), StandardCharsets.UTF_8);
+            publisherByOrderId.put(key, value.substring(value.indexOf(':') + 1));
+        } else {
+            publisherByOrderId.remove(key);
+        }
+        if (previous != null) {
+            counter(previous.getStatus()).decrement();
+        }
+        counter(event.getStatus()).increment();
+    }
+
+    private LongAdder counter(String status) {
+        return countByStatus.computeIfAbsent(status == null ? "UNKNOWN" : status, s -> new LongAdder());
+    }
+
+    // ===== READS =====
+
+    public Collection<IntegrationEvent> all() {
+        return latestByOrderId.values();
+    }
+
+    public List<IntegrationEvent> recent(int limit) {
+        Comparator<IntegrationEvent> byCreatedAt = Comparator.comparing(IntegrationEvent::getCreatedAt,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        // Bounded heap keeps the newest `limit` events without sorting the whole view
+        PriorityQueue<IntegrationEvent> newest = new PriorityQueue<>(limit + 1, byCreatedAt);
+        for (IntegrationEvent event : latestByOrderId.values()) {
+            newest.offer(event);
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        }
+        List<IntegrationEvent> result = new ArrayList<>(newest);
+        result.sort(byCreatedAt.reversed());
+        return result;
+    }
+
+    public List<IntegrationEvent> byStatus(String status) {
+        return latestByOrderId.values().stream()
+                .filter(e -> status.equals(e.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    public List<IntegrationEvent> byOrderId(String orderId) {
+        IntegrationEvent event = latestByOrderId.get(orderId);
+        return event == null ? List.of() : List.of(event);
+    }
+
+    public Optional<IntegrationEvent> latest(String orderId) {
+        return Optional.ofNullable(latestByOrderId.get(orderId));
+    }
+
+    /**
+     * dashboard.instance-id of the replica that last published this order, if it was one of ours
+     */
+    public Optional<String> publisherOf(String orderId) {
+        return Optional.ofNullable(publisherByOrderId.get(orderId));
+    }
+
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        countByStatus.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                counts.put(status, value);
+            }
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.dto.RetryResultMessage;
+import com.example.sapdashboard.service.EventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads retry outcomes and reconciles event status.
+ * Batch listener: a whole poll is applied with a few batched UPDATEs.
+ * Values are always read as {@link RetryResultMessage}, whatever type headers the producer sent
+ * (see KafkaConfig#retryResultListenerContainerFactory).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetryResultConsumer {
+
+    /**
+     * Consumer settings on top of Boot's: type headers ignored, every value bound to RetryResultMessage
+     */
+    public static final Map<String, Object> VALUE_DESERIALIZER_CONFIGS = Map.of(
+            JsonDeserializer.VALUE_DEFAULT_TYPE, RetryResultMessage.class.getName(),
+            JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+    private final EventService eventService;
+
+    @KafkaListener(
+            topics = KafkaProducer.RETRY_RESULT_TOPIC,
+            groupId = "dashboard-retry-result-group",
+            containerFactory = "retryResultListenerContainerFactory",
+            batch = "true"
+    )
+    public void consume(List<Object> messages) {
+        List<RetryResultMessage> results = new ArrayList<>(messages.size());
+        for (Object message : messages) {
+            if (message instanceof RetryResultMessage) {
+                results.add((RetryResultMessage) message);
+            } else {
+                log.warn("Skipping unexpected message on {}: {}", KafkaProducer.RETRY_RESULT_TOPIC, message);
+            }
+        }
+        log.debug("Received {} retry results", results.size());
+        eventService.applyRetryResults(results);
+    }
+}
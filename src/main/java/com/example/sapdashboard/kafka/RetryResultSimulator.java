@@ -0,0 +1,54 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.dto.RetryEventMessage;
+import com.example.sapdashboard.dto.RetryResultMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for SAP: answers every message on the retry topic with a result on the
+ * retry result topic, succeeding with the configured probability.
+ *
+ * Enabled with dashboard.retry-result.simulator.enabled=true. Never enable in production.
+ */
+@Component
+@ConditionalOnProperty(name = "dashboard.retry-result.simulator.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RetryResultSimulator {
+
+    private final KafkaProducer kafkaProducer;
+
+    @Value("${dashboard.retry-result.simulator.success-rate:0.8}")
+    private double successRate;
+
+    @KafkaListener(
+            topics = KafkaProducer.RETRY_TOPIC,
+            groupId = "dashboard-retry-simulator",
+            batch = "true"
+    )
+    public void simulate(List<Object> messages) {
+        for (Object message : messages) {
+            if (!(message instanceof RetryEventMessage)) {
+                continue;
+            }
+            RetryEventMessage retry = (RetryEventMessage) message;
+            boolean success = ThreadLocalRandom.current().nextDouble() < successRate;
+            kafkaProducer.sendToRetryResultTopic(new RetryResultMessage(
+                    retry.getOrderId(),
+                    retry.getRetryAttempt(),
+                    success ? "SUCCESS" : "FAILED",
+                    success ? null : "Simulated failure: " + retry.getOriginalErrorDetails(),
+                    LocalDateTime.now()));
+        }
+        log.debug("Simulated results for {} retries", messages.size());
+    }
+}
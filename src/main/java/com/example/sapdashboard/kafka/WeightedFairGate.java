@@ -0,0 +1,84 @@
+package com.example.sapdashboard.kafka;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Counting semaphore that grants its permits in weighted fair order (start-time fair queuing).
+ *
+ * A request of cost c from a client with weight w starts at max(virtual time, the client's last
+ * finish tag) and moves the client's finish tag to start + c / w. Waiters are granted in order of
+ * their start tags, so under contention each client gets permits in proportion to its weight, and
+ * a client that was idle starts at the current virtual time rather than with saved-up credit.
+ */
+class WeightedFairGate {
+
+    private final int permits;
+    private int available;
+    private double virtualTime;
+    private long sequence;
+    private final Map<String, Double> finishTags = new HashMap<>();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparingDouble((Waiter waiter) -> waiter.start).thenComparingLong(waiter -> waiter.sequence));
+
+    WeightedFairGate(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        this.permits = permits;
+        this.available = permits;
+    }
+
+    /**
+     * Wait for a permit; cost is the work it will be used for (events in the batch)
+     */
+    synchronized void acquire(String client, double weight, int cost) throws InterruptedException {
+        double start = Math.max(virtualTime, finishTags.getOrDefault(client, 0.0));
+        finishTags.put(client, start + cost / weight);
+        Waiter waiter = new Waiter(start, sequence++);
+        waiters.add(waiter);
+        try {
+            while (available == 0 || waiters.peek() != waiter) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            waiters.remove(waiter);
+            notifyAll();
+            throw e;
+        }
+        waiters.poll();
+        available--;
+        virtualTime = Math.max(virtualTime, start);
+        // The next waiter may be able to take another free permit
+        notifyAll();
+    }
+
+    synchronized void release() {
+        available++;
+        notifyAll();
+    }
+
+    int getPermits() {
+        return permits;
+    }
+
+    synchronized int getInUse() {
+        return permits - available;
+    }
+
+    synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    private static class Waiter {
+        final double start;
+        final long sequence;
+
+        Waiter(double start, long sequence) {
+            this.start = start;
+            this.sequence = sequence;
+        }
+    }
+}
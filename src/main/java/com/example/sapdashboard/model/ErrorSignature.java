@@ -0,0 +1,73 @@
+package com.example.sapdashboard.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Stable signature of a free-text errorDetails: the variable parts (ids, numbers, hosts,
+ * timestamps, quoted values) are masked so variants of the same error share one signature.
+ *
+ *   "Timeout calling sap-03.corp:8443 for PO-12345 after 30000 ms"
+ *     -> "Timeout calling <host> for PO-<n> after <n> ms"
+ *
+ * The hash (64-bit FNV-1a of the signature as 16 hex chars) is stored on the event in error_signature.
+ */
+public final class ErrorSignature {
+
+    public static final int MAX_LENGTH = 255;
+
+    // Applied in order: the specific shapes first, bare numbers last
+    private static final Pattern[] PATTERNS = {
+            Pattern.compile("\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b"),
+            Pattern.compile("\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}(:\\d{2}([.,]\\d+)?)?(Z|[+-]\\d{2}:?\\d{2})?"),
+            Pattern.compile("(?<=://)[^/\\s:?#]+(:\\d+)?"),
+            Pattern.compile("\\b(host|server|node)\\s*[=:]\\s*[\\w.-]+(:\\d+)?", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("\\b\\d{1,3}(\\.\\d{1,3}){3}(:\\d+)?\\b"),
+            Pattern.compile("\\b[\\w-]*\\d[\\w-]*(\\.[a-zA-Z][\\w-]*)+:\\d+\\b"),
+            Pattern.compile("'[^']*'|\"[^\"]*\""),
+            Pattern.compile("\\b(?=[0-9a-fA-F]*\\d)(?=[0-9a-fA-F]*[a-fA-F])[0-9a-fA-F]{8,}\\b"),
+            Pattern.compile("\\d{3,}|\\b\\d+\\b")
+    };
+    private static final String[] MASKS = {
+            "<uuid>", "<ts>", "<host>", "$1=<host>", "<ip>", "<host>", "'<v>'", "<hex>", "<n>"
+    };
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ErrorSignature() {
+    }
+
+    /**
+     * The masked text, or null for a blank errorDetails
+     */
+    public static String normalize(String errorDetails) {
+        if (errorDetails == null || errorDetails.isBlank()) {
+            return null;
+        }
+        String text = errorDetails;
+        for (int i = 0; i < PATTERNS.length; i++) {
+            text = PATTERNS[i].matcher(text).replaceAll(MASKS[i]);
+        }
+        text = WHITESPACE.matcher(text).replaceAll(" ").trim();
+        return text.length() > MAX_LENGTH ? text.substring(0, MAX_LENGTH) : text;
+    }
+
+    /**
+     * Hash of a normalized signature
+     */
+    public static String hash(String signature) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : signature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash);
+    }
+
+    /**
+     * Hash of the errorDetails' signature, or null for a blank errorDetails
+     */
+    public static String hashOf(String errorDetails) {
+        String signature = normalize(errorDetails);
+        return signature == null ? null : hash(signature);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.sapdashboard.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One business-key value extracted from an event's payload (see FieldExtractor).
+ * Rows are written and read with plain JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "event_field_index", indexes = {
+        // GET /api/events/by-field: equality on (name, value), newest ids first
+        @Index(name = "idx_event_field_index_lookup", columnList = "field_name, field_value, event_id")
+})
+@IdClass(EventFieldValue.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventFieldValue {
+
+    public static final int MAX_NAME_LENGTH = 64;
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Id
+    @Column(name = "field_name", length = MAX_NAME_LENGTH)
+    private String name;
+
+    @Id
+    @Column(name = "field_value", length = 255)
+    private String value;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long eventId;
+        private String name;
+        private String value;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.sapdashboard.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Field selection for the event list APIs: ?fields=id,orderId,status,timeAgo
+ *
+ * Stored fields map to columns, so stores read only what was asked for. The derived fields
+ * (timeAgo, timestamp) are only produced when named, from createdAt and one clock read per response.
+ */
+public class EventProjection {
+
+    public static final String TIME_AGO = "timeAgo";
+    public static final String TIMESTAMP = "timestamp";
+    private static final String CREATED_AT = "createdAt";
+
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<IntegrationEvent, Object>> GETTERS = new HashMap<>();
+    private static final Map<String, PayloadRef.Field> PAYLOAD_FIELDS = new HashMap<>();
+
+    static {
+        stored("id", "id", IntegrationEvent::getId);
+        stored("orderId", "order_id", IntegrationEvent::getOrderId);
+        stored("status", "status", IntegrationEvent::getStatus);
+        stored("message", "message", IntegrationEvent::getMessage);
+        stored("payload", "payload", IntegrationEvent::getPayload);
+        stored("originalPayload", "original_payload", IntegrationEvent::getOriginalPayload);
+        stored("payloadFormat", "payload_format", IntegrationEvent::getPayloadFormat);
+        stored("retryCount", "retry_count", IntegrationEvent::getRetryCount);
+        stored("retryHistory", "retry_history", IntegrationEvent::getRetryHistory);
+        stored("errorDetails", "error_details", IntegrationEvent::getErrorDetails);
+        stored("errorSignature", "error_signature", IntegrationEvent::getErrorSignature);
+        stored("integrationName", "integration_name", IntegrationEvent::getIntegrationName);
+        stored(CREATED_AT, "created_at", IntegrationEvent::getCreatedAt);
+        stored("updatedAt", "updated_at", IntegrationEvent::getUpdatedAt);
+        PAYLOAD_FIELDS.put("payload", PayloadRef.Field.PAYLOAD);
+        PAYLOAD_FIELDS.put("originalPayload", PayloadRef.Field.ORIGINAL_PAYLOAD);
+        PAYLOAD_FIELDS.put("retryHistory", PayloadRef.Field.RETRY_HISTORY);
+    }
+
+    private final List<String> fields;
+    private final List<String> storedFields;
+
+    private EventProjection(List<String> fields, List<String> storedFields) {
+        this.fields = fields;
+        this.storedFields = storedFields;
+    }
+
+    /**
+     * Comma-separated field names; unknown names are rejected with IllegalArgumentException
+     */
+    public static EventProjection parse(String fields) {
+        List<String> requested = new ArrayList<>();
+        List<String> stored = new ArrayList<>();
+        boolean derived = false;
+        for (String part : fields.split(",")) {
+            String field = part.trim();
+            if (field.isEmpty() || requested.contains(field)) {
+                continue;
+            }
+            if (TIME_AGO.equals(field) || TIMESTAMP.equals(field)) {
+                derived = true;
+            } else if (COLUMNS.containsKey(field)) {
+                stored.add(field);
+            } else {
+                throw new IllegalArgumentException("Unknown field '" + field + "' (expected one of "
+                        + String.join(", ", COLUMNS.keySet()) + ", " + TIME_AGO + ", " + TIMESTAMP + ")");
+            }
+            requested.add(field);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        if (derived && !stored.contains(CREATED_AT)) {
+            stored.add(CREATED_AT);
+        }
+        return new EventProjection(Collections.unmodifiableList(requested), Collections.unmodifiableList(stored));
+    }
+
+    /**
+     * Requested fields, in request order
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Fields a store has to read, including createdAt when a derived field needs it
+     */
+    public List<String> getStoredFields() {
+        return storedFields;
+    }
+
+    public static String column(String field) {
+        return COLUMNS.get(field);
+    }
+
+    /**
+     * The payload log field behind a stored field, or null if the field is not a payload body
+     */
+    public static PayloadRef.Field payloadField(String field) {
+        return PAYLOAD_FIELDS.get(field);
+    }
+
+    /**
+     * Stored fields of an event held in memory. Bodies kept in the payload log come back as their ref.
+     */
+    public Map<String, Object> read(IntegrationEvent event) {
+        Map<String, Object> row = new HashMap<>();
+        for (String field : storedFields) {
+            Object value = GETTERS.get(field).apply(event);
+            PayloadRef.Field payloadField = PAYLOAD_FIELDS.get(field);
+            if (value == null && payloadField != null) {
+                value = payloadField.getRef(event);
+            }
+            row.put(field, value);
+        }
+        return row;
+    }
+
+    /**
+     * The response object: requested fields in request order, derived fields computed against now
+     */
+    public Map<String, Object> toResponse(Map<String, Object> row, LocalDateTime now) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (String field : fields) {
+            if (TIME_AGO.equals(field)) {
+                response.put(field, IntegrationEvent.timeAgo((LocalDateTime) row.get(CREATED_AT), now));
+            } else if (TIMESTAMP.equals(field)) {
+                response.put(field, row.get(CREATED_AT));
+            } else {
+                response.put(field, row.get(field));
+            }
+        }
+        return response;
+    }
+
+    private static void stored(String field, String column, Function<IntegrationEvent, Object> getter) {
+        COLUMNS.put(field, column);
+        GETTERS.put(field, getter);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.sapdashboard.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,12 +11,19 @@ import java.time.LocalDateTime;
 import java.time.Duration;
 
 @Entity
-@Table(name = "integration_events")
+@Table(name = "integration_events", indexes = {
+        // Keyset scans by status (bulk reprocess, retry reconciliation)
+        @Index(name = "idx_integration_events_status_id", columnList = "status, id"),
+        // Events behind one error signature (/api/errors/{signature}/events)
+        @Index(name = "idx_integration_events_error_signature", columnList = "error_signature, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class IntegrationEvent {
 
+    public static final int MAX_RETRIES = 3;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,11 +55,43 @@ public class IntegrationEvent {
     @Column(name = "error_details", columnDefinition = "TEXT")
     private String errorDetails;
 
+    // ErrorSignature hash of errorDetails, set on ingest and when a retry result changes errorDetails
+    @Column(name = "error_signature", length = 16)
+    private String errorSignature;
+
     // 🚨 NEW FIELD ADDED HERE 🚨
     @Column(name = "integration_name")
     private String integrationName;
     // 🚨 END NEW FIELD 🚨
 
+    // Set instead of payload/originalPayload/retryHistory when dashboard.payload-log.enabled=true
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "segment", column = @Column(name = "payload_ref_segment")),
+            @AttributeOverride(name = "offset", column = @Column(name = "payload_ref_offset")),
+            @AttributeOverride(name = "length", column = @Column(name = "payload_ref_length"))
+    })
+    @JsonIgnore
+    private PayloadRef payloadRef;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "segment", column = @Column(name = "original_payload_ref_segment")),
+            @AttributeOverride(name = "offset", column = @Column(name = "original_payload_ref_offset")),
+            @AttributeOverride(name = "length", column = @Column(name = "original_payload_ref_length"))
+    })
+    @JsonIgnore
+    private PayloadRef originalPayloadRef;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "segment", column = @Column(name = "retry_history_ref_segment")),
+            @AttributeOverride(name = "offset", column = @Column(name = "retry_history_ref_offset")),
+            @AttributeOverride(name = "length", column = @Column(name = "retry_history_ref_length"))
+    })
+    @JsonIgnore
+    private PayloadRef retryHistoryRef;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -59,6 +100,8 @@ public class IntegrationEvent {
 
     // --- METHODS ---
 
+    // Alias of createdAt: accepted on input, not repeated in responses (ask for it with ?fields=)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public LocalDateTime getTimestamp() {
         return createdAt;
     }
@@ -68,7 +111,7 @@ public class IntegrationEvent {
     }
 
     public boolean canRetry() {
-        return retryCount < 3; // Max 3 retries
+        return retryCount < MAX_RETRIES;
     }
 
     public void incrementRetry() {
@@ -78,14 +121,19 @@ public class IntegrationEvent {
 
     /**
      * Calculate time elapsed since event creation (e.g., "5 minutes ago")
+     * Used by the dashboard page; JSON clients ask for it with ?fields=...,timeAgo
      */
+    @JsonIgnore
     public String getTimeAgo() {
-        if (this.createdAt == null) {
+        return timeAgo(this.createdAt, LocalDateTime.now());
+    }
+
+    public static String timeAgo(LocalDateTime createdAt, LocalDateTime now) {
+        if (createdAt == null) {
             return "Unknown";
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        Duration duration = Duration.between(this.createdAt, now);
+        Duration duration = Duration.between(createdAt, now);
 
         long seconds = duration.getSeconds();
 
@@ -0,0 +1,104 @@
+package com.example.sapdashboard.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Location of a payload body in the payload log: segment number, byte offset and byte length
+ * of the UTF-8 encoded text. Immutable; a rewritten payload gets a new ref.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class PayloadRef {
+
+    @Column(name = "segment")
+    private int segment;
+
+    @Column(name = "offset")
+    private long offset;
+
+    @Column(name = "length")
+    private int length;
+
+    /**
+     * The event fields whose bodies can live in the payload log
+     */
+    public enum Field {
+        PAYLOAD("payload_ref", IntegrationEvent::getPayload, IntegrationEvent::setPayload,
+                IntegrationEvent::getPayloadRef, IntegrationEvent::setPayloadRef),
+        ORIGINAL_PAYLOAD("original_payload_ref", IntegrationEvent::getOriginalPayload, IntegrationEvent::setOriginalPayload,
+                IntegrationEvent::getOriginalPayloadRef, IntegrationEvent::setOriginalPayloadRef),
+        RETRY_HISTORY("retry_history_ref", IntegrationEvent::getRetryHistory, IntegrationEvent::setRetryHistory,
+                IntegrationEvent::getRetryHistoryRef, IntegrationEvent::setRetryHistoryRef);
+
+        private final String columnPrefix;
+        private final Function<IntegrationEvent, String> textGetter;
+        private final BiConsumer<IntegrationEvent, String> textSetter;
+        private final Function<IntegrationEvent, PayloadRef> refGetter;
+        private final BiConsumer<IntegrationEvent, PayloadRef> refSetter;
+
+        Field(String columnPrefix,
+              Function<IntegrationEvent, String> textGetter, BiConsumer<IntegrationEvent, String> textSetter,
+              Function<IntegrationEvent, PayloadRef> refGetter, BiConsumer<IntegrationEvent, PayloadRef> refSetter) {
+            this.columnPrefix = columnPrefix;
+            this.textGetter = textGetter;
+            this.textSetter = textSetter;
+            this.refGetter = refGetter;
+            this.refSetter = refSetter;
+        }
+
+        /**
+         * Columns are {prefix}_segment, {prefix}_offset and {prefix}_length
+         */
+        public String getColumnPrefix() {
+            return columnPrefix;
+        }
+
+        public String getText(IntegrationEvent event) {
+            return textGetter.apply(event);
+        }
+
+        public void setText(IntegrationEvent event, String text) {
+            textSetter.accept(event, text);
+        }
+
+        public PayloadRef getRef(IntegrationEvent event) {
+            return refGetter.apply(event);
+        }
+
+        public void setRef(IntegrationEvent event, PayloadRef ref) {
+            refSetter.accept(event, ref);
+        }
+
+        /**
+         * payload, originalPayload or retryHistory
+         */
+        public static Field fromName(String name) {
+            switch (name) {
+                case "payload":
+                    return PAYLOAD;
+                case "originalPayload":
+                case "original":
+                    return ORIGINAL_PAYLOAD;
+                case "retryHistory":
+                    return RETRY_HISTORY;
+                default:
+                    throw new IllegalArgumentException("Unknown payload field '" + name
+                            + "' (expected payload, originalPayload, retryHistory)");
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.sapdashboard.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to event_field_index: extracted business-key values per event
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventFieldIndexRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO event_field_index (event_id, field_name, field_value) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Replace all values of the event with the given ones
+     */
+    @Transactional
+    public void replace(Long eventId, Map<String, List<String>> values) {
+        jdbcTemplate.update("DELETE FROM event_field_index WHERE event_id = ?", eventId);
+        insertAll(Map.of(eventId, values));
+    }
+
+    /**
+     * Insert the values of events that have none yet: one batched INSERT for all of their rows
+     */
+    public void insertAll(Map<Long, Map<String, List<String>>> valuesById) {
+        List<Object[]> rows = new ArrayList<>();
+        valuesById.forEach((eventId, values) -> values.forEach((name, found) ->
+                found.forEach(value -> rows.add(new Object[]{eventId, name, value}))));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    /**
+     * Ids of events with the value, highest first; served by idx_event_field_index_lookup
+     */
+    public List<Long> findIds(String name, String value, int limit) {
+        return jdbcTemplate.queryForList("SELECT event_id FROM event_field_index WHERE field_name = ? AND field_value = ? "
+                + "ORDER BY event_id DESC LIMIT ?", Long.class, name, value, limit);
+    }
+}
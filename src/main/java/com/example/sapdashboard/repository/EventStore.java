@@ -0,0 +1,136 @@
+package com.example.sapdashboard.repository;
+
+import com.example.sapdashboard.model.ErrorSignature;
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.model.PayloadRef;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage engine for integration events, selected with dashboard.store.engine:
+ *   jpa    - the integration_events table ({@link JpaEventStore}, default)
+ *   memory - concurrent in-memory engine ({@link InMemoryEventStore}); nothing survives a restart
+ *
+ * Events returned by a store are detached: changes only take effect through save/saveAll.
+ */
+public interface EventStore {
+
+    // ===== WRITES =====
+
+    /**
+     * Insert a new event or replace an existing one; returns the stored event with its id
+     */
+    IntegrationEvent save(IntegrationEvent event);
+
+    /**
+     * Save events that were loaded from this store and changed
+     */
+    void saveAll(Collection<IntegrationEvent> events);
+
+    /**
+     * Insert new events in batches; sets the generated ids on the passed events
+     */
+    void insertAll(List<IntegrationEvent> events, int batchSize);
+
+    /**
+     * Move the given events from fromStatus to toStatus. Events no longer in fromStatus are not
+     * touched; a null errorDetails keeps the current value (and error signature). Returns the
+     * number of events moved.
+     */
+    int transition(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails);
+
+    /**
+     * Same as transition, but also clears errorDetails and the error signature (a successful retry)
+     */
+    int transitionClearingError(Collection<Long> ids, String fromStatus, String toStatus);
+
+    /**
+     * Same as transition, but returns the ids that were actually moved, for callers that act on
+     * each moved event (send a retry, update analytics)
+     */
+    List<Long> transitionIds(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails);
+
+    /**
+     * Same as transitionClearingError, but returns the ids that were actually moved
+     */
+    List<Long> transitionIdsClearingError(Collection<Long> ids, String fromStatus, String toStatus);
+
+    /**
+     * Replace the business-key values extracted from the event's payload (field name to values)
+     */
+    void replaceFieldValues(Long id, Map<String, List<String>> values);
+
+    /**
+     * Add the business-key values of events that have none indexed yet (new events), for all of
+     * them in one write
+     */
+    void insertFieldValues(Map<Long, Map<String, List<String>>> valuesById);
+
+    /**
+     * Point the field at replacement (null clears it) if it still points at expected.
+     * Used by the payload log to relocate or drop bodies without touching the rest of the event.
+     */
+    boolean replacePayloadRef(Long id, PayloadRef.Field field, PayloadRef expected, PayloadRef replacement);
+
+    // ===== LOOKUPS =====
+
+    Optional<IntegrationEvent> findById(Long id);
+
+    List<IntegrationEvent> findAllById(Collection<Long> ids);
+
+    boolean existsById(Long id);
+
+    List<IntegrationEvent> findAll();
+
+    List<IntegrationEvent> findByStatus(String status);
+
+    List<IntegrationEvent> findByOrderId(String orderId);
+
+    List<IntegrationEvent> findFailedWithPayload();
+
+    /**
+     * The newest events, newest first
+     */
+    List<IntegrationEvent> findRecent(int limit);
+
+    Map<String, Long> countByStatus();
+
+    /**
+     * Only the projection's stored fields of events with the given status and/or orderId (both
+     * optional), ordered by id. Bodies kept in the payload log come back as their {@link PayloadRef}.
+     */
+    List<Map<String, Object>> findFields(EventProjection projection, String status, String orderId);
+
+    /**
+     * The newest events (highest ids first) whose errorDetails have the given {@link ErrorSignature} hash
+     */
+    List<IntegrationEvent> findByErrorSignature(String signature, int limit);
+
+    /**
+     * Ids (highest first) of events with the given extracted value; an index lookup, payloads are not read
+     */
+    List<Long> findIdsByFieldValue(String name, String value, int limit);
+
+    /**
+     * Events with any payload ref in the given payload log segment
+     */
+    List<IntegrationEvent> findByPayloadSegment(int segment);
+
+    /**
+     * Ids of events in the given status for the given orders, grouped by
+     * {@link IntegrationEventBatchRepository#retryKey(String, int)}
+     */
+    Map<String, List<Long>> findIdsByStatusAndOrderIds(String status, Collection<String> orderIds);
+
+    /**
+     * Next chunk of ids (ascending, greater than afterId) of events in the given status matching the
+     * optional filters. errorPattern is a plain substring of errorDetails.
+     */
+    List<Long> findIdsAfter(String status, String integrationName, String errorPattern,
+                            LocalDateTime createdFrom, LocalDateTime createdTo, long afterId, int limit);
+}
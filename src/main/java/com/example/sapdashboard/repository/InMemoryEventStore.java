@@ -0,0 +1,538 @@
+package com.example.sapdashboard.repository;
+
+import com.example.sapdashboard.model.ErrorSignature;
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.model.PayloadRef;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent in-memory event store for deployments that value latency over SQL access
+ * (dashboard.store.engine=memory). Events are lost on restart.
+ *
+ * Ids are dense and assigned here, so events live in segmented arrays indexed by id. Per-status
+ * (ordered, for keyset scans), per-orderId and per-error-signature id sets plus per-status
+ * counters serve the lookups.
+ * Writers lock one of a fixed set of stripes chosen by id; readers take no locks. Stored events
+ * are private snapshots: a write replaces the snapshot and every read returns a copy, so index
+ * entries can briefly point at an event that already moved on and are re-checked on read.
+ */
+@Component
+@ConditionalOnProperty(name = "dashboard.store.engine", havingValue = "memory")
+@Slf4j
+public class InMemoryEventStore implements EventStore {
+
+    private static final int SEGMENT_SHIFT = 14;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int STRIPES = 64;
+    // Never modified; stands in for a status nobody has had yet
+    private static final NavigableSet<Long> NO_IDS = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private volatile AtomicReferenceArray<IntegrationEvent>[] segments = newSegments(0);
+    private final Object growLock = new Object();
+    private final Object[] locks = new Object[STRIPES];
+
+    private final ConcurrentMap<String, NavigableSet<Long>> idsByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> idsByOrderId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, NavigableSet<Long>> idsBySignature = new ConcurrentHashMap<>();
+    // Extracted field values: name -> value -> ids, and what each event currently has indexed
+    private final ConcurrentMap<String, ConcurrentMap<String, NavigableSet<Long>>> idsByField = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Map<String, List<String>>> fieldValuesById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> countsByStatus = new ConcurrentHashMap<>();
+
+    public InMemoryEventStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        log.info("Using the in-memory event store; events are not persisted");
+    }
+
+    // ===== WRITES =====
+
+    @Override
+    public IntegrationEvent save(IntegrationEvent event) {
+        requireNotNullColumns(event);
+        IntegrationEvent stored = copy(event);
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.getId() == null || get(stored.getId()) == null) {
+            // Like a JPA merge of an unknown id, this inserts with a new id
+            stored.setId(nextId.getAndIncrement());
+            if (stored.getCreatedAt() == null) {
+                stored.setCreatedAt(now);
+            }
+            if (stored.getUpdatedAt() == null) {
+                stored.setUpdatedAt(now);
+            }
+            event.setId(stored.getId());
+        } else {
+            stored.setUpdatedAt(now);
+        }
+        synchronized (lockFor(stored.getId())) {
+            put(stored);
+        }
+        return copy(stored);
+    }
+
+    @Override
+    public void saveAll(Collection<IntegrationEvent> events) {
+        events.forEach(this::save);
+    }
+
+    /**
+     * Ids are assigned to the passed events. There is no round trip to amortize, so batchSize is unused.
+     */
+    @Override
+    public void insertAll(List<IntegrationEvent> events, int batchSize) {
+        events.forEach(InMemoryEventStore::requireNotNullColumns);
+        long id = nextId.getAndAdd(events.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (IntegrationEvent event : events) {
+            IntegrationEvent stored = copy(event);
+            stored.setId(id);
+            if (stored.getCreatedAt() == null) {
+                stored.setCreatedAt(now);
+            }
+            if (stored.getUpdatedAt() == null) {
+                stored.setUpdatedAt(now);
+            }
+            synchronized (lockFor(id)) {
+                put(stored);
+            }
+            event.setId(id++);
+        }
+    }
+
+    @Override
+    public int transition(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails) {
+        return transition(ids, fromStatus, toStatus, errorDetails, false).size();
+    }
+
+    @Override
+    public int transitionClearingError(Collection<Long> ids, String fromStatus, String toStatus) {
+        return transition(ids, fromStatus, toStatus, null, true).size();
+    }
+
+    @Override
+    public List<Long> transitionIds(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails) {
+        return transition(ids, fromStatus, toStatus, errorDetails, false);
+    }
+
+    @Override
+    public List<Long> transitionIdsClearingError(Collection<Long> ids, String fromStatus, String toStatus) {
+        return transition(ids, fromStatus, toStatus, null, true);
+    }
+
+    private List<Long> transition(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails, boolean clearError) {
+        List<Long> moved = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            synchronized (lockFor(id)) {
+                IntegrationEvent current = get(id);
+                if (current == null || !fromStatus.equals(current.getStatus())) {
+                    continue;
+                }
+                IntegrationEvent next = copy(current);
+                next.setStatus(toStatus);
+                if (clearError || errorDetails != null) {
+                    next.setErrorDetails(errorDetails);
+                    next.setErrorSignature(ErrorSignature.hashOf(errorDetails));
+                }
+                next.setUpdatedAt(now);
+                put(next);
+                moved.add(id);
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public void insertFieldValues(Map<Long, Map<String, List<String>>> valuesById) {
+        valuesById.forEach(this::replaceFieldValues);
+    }
+
+    @Override
+    public void replaceFieldValues(Long id, Map<String, List<String>> values) {
+        synchronized (lockFor(id)) {
+            Map<String, List<String>> previous = values.isEmpty()
+                    ? fieldValuesById.remove(id) : fieldValuesById.put(id, new HashMap<>(values));
+            if (previous != null) {
+                previous.forEach((name, found) -> found.forEach(value -> idsByField.get(name).get(value).remove(id)));
+            }
+            values.forEach((name, found) -> found.forEach(value -> idsByField
+                    .computeIfAbsent(name, n -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(value, v -> new ConcurrentSkipListSet<>())
+                    .add(id)));
+        }
+    }
+
+    @Override
+    public boolean replacePayloadRef(Long id, PayloadRef.Field field, PayloadRef expected, PayloadRef replacement) {
+        synchronized (lockFor(id)) {
+            IntegrationEvent current = get(id);
+            if (current == null || !expected.equals(field.getRef(current))) {
+                return false;
+            }
+            IntegrationEvent next = copy(current);
+            field.setRef(next, replacement);
+            put(next);
+            return true;
+        }
+    }
+
+    // ===== LOOKUPS =====
+
+    @Override
+    public Optional<IntegrationEvent> findById(Long id) {
+        return Optional.ofNullable(get(id)).map(InMemoryEventStore::copy);
+    }
+
+    @Override
+    public List<IntegrationEvent> findAllById(Collection<Long> ids) {
+        List<IntegrationEvent> events = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            IntegrationEvent event = get(id);
+            if (event != null) {
+                events.add(copy(event));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public List<IntegrationEvent> findAll() {
+        long maxId = nextId.get() - 1;
+        List<IntegrationEvent> events = new ArrayList<>();
+        for (long id = 1; id <= maxId; id++) {
+            IntegrationEvent event = get(id);
+            if (event != null) {
+                events.add(copy(event));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public List<IntegrationEvent> findByStatus(String status) {
+        List<IntegrationEvent> events = new ArrayList<>();
+        for (Long id : idsByStatus.getOrDefault(status, NO_IDS)) {
+            IntegrationEvent event = get(id);
+            if (event != null && status.equals(event.getStatus())) {
+                events.add(copy(event));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public List<IntegrationEvent> findByOrderId(String orderId) {
+        List<IntegrationEvent> events = new ArrayList<>();
+        for (Long id : idsByOrderId.getOrDefault(orderId, Set.of())) {
+            IntegrationEvent event = get(id);
+            if (event != null && orderId.equals(event.getOrderId())) {
+                events.add(copy(event));
+            }
+        }
+        events.sort(Comparator.comparing(IntegrationEvent::getId));
+        return events;
+    }
+
+    @Override
+    public List<IntegrationEvent> findFailedWithPayload() {
+        List<IntegrationEvent> events = new ArrayList<>();
+        for (IntegrationEvent event : findByStatus("FAILED")) {
+            if (event.getPayload() != null || event.getPayloadRef() != null) {
+                events.add(event);
+            }
+        }
+        events.sort(Comparator.comparing(IntegrationEvent::getCreatedAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return events;
+    }
+
+    /**
+     * Newest by insertion order (highest ids first); walks back from the end instead of sorting
+     */
+    @Override
+    public List<IntegrationEvent> findRecent(int limit) {
+        List<IntegrationEvent> events = new ArrayList<>(limit);
+        for (long id = nextId.get() - 1; id >= 1 && events.size() < limit; id--) {
+            IntegrationEvent event = get(id);
+            if (event != null) {
+                events.add(copy(event));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        countsByStatus.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                counts.put(status, value);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Reads the fields straight from the stored snapshots, without copying events
+     */
+    @Override
+    public List<Map<String, Object>> findFields(EventProjection projection, String status, String orderId) {
+        Collection<Long> ids;
+        if (orderId != null) {
+            List<Long> sorted = new ArrayList<>(idsByOrderId.getOrDefault(orderId, Set.of()));
+            sorted.sort(null);
+            ids = sorted;
+        } else if (status != null) {
+            ids = idsByStatus.getOrDefault(status, NO_IDS);
+        } else {
+            ids = null;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (ids == null) {
+            long maxId = nextId.get() - 1;
+            for (long id = 1; id <= maxId; id++) {
+                IntegrationEvent event = get(id);
+                if (event != null) {
+                    rows.add(projection.read(event));
+                }
+            }
+            return rows;
+        }
+        for (Long id : ids) {
+            IntegrationEvent event = get(id);
+            if (event != null && (status == null || status.equals(event.getStatus()))
+                    && (orderId == null || orderId.equals(event.getOrderId()))) {
+                rows.add(projection.read(event));
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public List<IntegrationEvent> findByErrorSignature(String signature, int limit) {
+        List<IntegrationEvent> events = new ArrayList<>(limit);
+        for (Long id : idsBySignature.getOrDefault(signature, NO_IDS).descendingSet()) {
+            IntegrationEvent event = get(id);
+            if (event != null && signature.equals(event.getErrorSignature())) {
+                events.add(copy(event));
+                if (events.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public List<Long> findIdsByFieldValue(String name, String value, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        Map<String, NavigableSet<Long>> byValue = idsByField.get(name);
+        if (byValue == null) {
+            return ids;
+        }
+        for (Long id : byValue.getOrDefault(value, NO_IDS).descendingSet()) {
+            ids.add(id);
+            if (ids.size() == limit) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public List<IntegrationEvent> findByPayloadSegment(int segment) {
+        List<IntegrationEvent> events = new ArrayList<>();
+        long maxId = nextId.get() - 1;
+        for (long id = 1; id <= maxId; id++) {
+            IntegrationEvent event = get(id);
+            if (event != null && (inSegment(event.getPayloadRef(), segment)
+                    || inSegment(event.getOriginalPayloadRef(), segment) || inSegment(event.getRetryHistoryRef(), segment))) {
+                events.add(copy(event));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public Map<String, List<Long>> findIdsByStatusAndOrderIds(String status, Collection<String> orderIds) {
+        Map<String, List<Long>> ids = new HashMap<>();
+        for (String orderId : orderIds) {
+            for (Long id : idsByOrderId.getOrDefault(orderId, Set.of())) {
+                IntegrationEvent event = get(id);
+                if (event != null && status.equals(event.getStatus()) && orderId.equals(event.getOrderId())) {
+                    ids.computeIfAbsent(IntegrationEventBatchRepository.retryKey(orderId, event.getRetryCount()),
+                            key -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Long> findIdsAfter(String status, String integrationName, String errorPattern,
+                                   LocalDateTime createdFrom, LocalDateTime createdTo, long afterId, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Long id : idsByStatus.getOrDefault(status, NO_IDS).tailSet(afterId, false)) {
+            IntegrationEvent event = get(id);
+            if (event == null || !status.equals(event.getStatus())) {
+                continue;
+            }
+            if ((integrationName != null && !integrationName.equals(event.getIntegrationName()))
+                    || (errorPattern != null && (event.getErrorDetails() == null || !event.getErrorDetails().contains(errorPattern)))
+                    || (createdFrom != null && (event.getCreatedAt() == null || event.getCreatedAt().isBefore(createdFrom)))
+                    || (createdTo != null && (event.getCreatedAt() == null || !event.getCreatedAt().isBefore(createdTo)))) {
+                continue;
+            }
+            ids.add(id);
+            if (ids.size() == limit) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    // ===== STORAGE =====
+
+    private IntegrationEvent get(Long id) {
+        if (id == null || id < 1) {
+            return null;
+        }
+        long index = id - 1;
+        AtomicReferenceArray<IntegrationEvent>[] current = segments;
+        int segment = (int) (index >>> SEGMENT_SHIFT);
+        if (segment >= current.length) {
+            return null;
+        }
+        return current[segment].get((int) (index & (SEGMENT_SIZE - 1)));
+    }
+
+    /**
+     * Store the snapshot and move its id between index entries. Caller holds the id's stripe lock.
+     * The slot is written before the new index entries, so an indexed id always resolves.
+     */
+    private void put(IntegrationEvent event) {
+        long index = event.getId() - 1;
+        int segment = (int) (index >>> SEGMENT_SHIFT);
+        AtomicReferenceArray<IntegrationEvent>[] current = segments;
+        if (segment >= current.length) {
+            current = grow(segment + 1);
+        }
+        IntegrationEvent previous = current[segment].getAndSet((int) (index & (SEGMENT_SIZE - 1)), event);
+
+        Long id = event.getId();
+        String previousStatus = previous == null ? null : previous.getStatus();
+        if (!event.getStatus().equals(previousStatus)) {
+            idsByStatus.computeIfAbsent(event.getStatus(), s -> new ConcurrentSkipListSet<>()).add(id);
+            countsByStatus.computeIfAbsent(event.getStatus(), s -> new LongAdder()).increment();
+            if (previousStatus != null) {
+                idsByStatus.get(previousStatus).remove(id);
+                countsByStatus.get(previousStatus).decrement();
+            }
+        }
+        String previousOrderId = previous == null ? null : previous.getOrderId();
+        if (!event.getOrderId().equals(previousOrderId)) {
+            idsByOrderId.computeIfAbsent(event.getOrderId(), o -> ConcurrentHashMap.newKeySet()).add(id);
+            if (previousOrderId != null) {
+                idsByOrderId.get(previousOrderId).remove(id);
+            }
+        }
+        String previousSignature = previous == null ? null : previous.getErrorSignature();
+        if (event.getErrorSignature() != null && !event.getErrorSignature().equals(previousSignature)) {
+            idsBySignature.computeIfAbsent(event.getErrorSignature(), s -> new ConcurrentSkipListSet<>()).add(id);
+        }
+        if (previousSignature != null && !previousSignature.equals(event.getErrorSignature())) {
+            idsBySignature.get(previousSignature).remove(id);
+        }
+    }
+
+    private AtomicReferenceArray<IntegrationEvent>[] grow(int segmentCount) {
+        synchronized (growLock) {
+            AtomicReferenceArray<IntegrationEvent>[] current = segments;
+            if (current.length < segmentCount) {
+                AtomicReferenceArray<IntegrationEvent>[] grown = newSegments(Math.max(segmentCount, current.length * 2));
+                System.arraycopy(current, 0, grown, 0, current.length);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new AtomicReferenceArray<>(SEGMENT_SIZE);
+                }
+                segments = grown;
+                current = grown;
+            }
+            return current;
+        }
+    }
+
+    private Object lockFor(long id) {
+        return locks[(int) (id & (STRIPES - 1))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<IntegrationEvent>[] newSegments(int count) {
+        return (AtomicReferenceArray<IntegrationEvent>[]) new AtomicReferenceArray[count];
+    }
+
+    private static boolean inSegment(PayloadRef ref, int segment) {
+        return ref != null && ref.getSegment() == segment;
+    }
+
+    /**
+     * Same outcome as the NOT NULL constraints of the table
+     */
+    private static void requireNotNullColumns(IntegrationEvent event) {
+        if (event.getOrderId() == null || event.getStatus() == null) {
+            throw new DataIntegrityViolationException("orderId and status are required");
+        }
+    }
+
+    private static IntegrationEvent copy(IntegrationEvent source) {
+        IntegrationEvent copy = new IntegrationEvent();
+        copy.setId(source.getId());
+        copy.setOrderId(source.getOrderId());
+        copy.setStatus(source.getStatus());
+        copy.setMessage(source.getMessage());
+        copy.setPayload(source.getPayload());
+        copy.setOriginalPayload(source.getOriginalPayload());
+        copy.setPayloadFormat(source.getPayloadFormat());
+        copy.setRetryCount(source.getRetryCount());
+        copy.setRetryHistory(source.getRetryHistory());
+        copy.setErrorDetails(source.getErrorDetails());
+        copy.setErrorSignature(source.getErrorSignature());
+        copy.setIntegrationName(source.getIntegrationName());
+        copy.setPayloadRef(source.getPayloadRef());
+        copy.setOriginalPayloadRef(source.getOriginalPayloadRef());
+        copy.setRetryHistoryRef(source.getRetryHistoryRef());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
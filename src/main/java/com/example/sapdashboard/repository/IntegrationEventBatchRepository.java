@@ -0,0 +1,348 @@
+package com.example.sapdashboard.repository;
+
+import com.example.sapdashboard.model.ErrorSignature;
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.model.PayloadRef;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC access for set-based work that JPA handles poorly.
+ * IDENTITY ids disable Hibernate insert batching, so bulk inserts go through JdbcTemplate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IntegrationEventBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO integration_events (order_id, status, message, payload, original_payload, payload_format, " +
+                    "retry_count, retry_history, error_details, integration_name, created_at, updated_at, " +
+                    "payload_ref_segment, payload_ref_offset, payload_ref_length, " +
+                    "original_payload_ref_segment, original_payload_ref_offset, original_payload_ref_length, " +
+                    "retry_history_ref_segment, retry_history_ref_offset, retry_history_ref_length, error_signature) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Keeps IN lists well below driver/database parameter limits
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert all events using JDBC batches in a single transaction.
+     * Generated ids are read back onto the passed events.
+     */
+    @Transactional
+    public void insertAll(List<IntegrationEvent> events, int batchSize) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (int from = 0; from < events.size(); from += batchSize) {
+                    List<IntegrationEvent> batch = events.subList(from, Math.min(events.size(), from + batchSize));
+                    for (IntegrationEvent event : batch) {
+                        bindInsert(ps, event);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    readGeneratedIds(ps, batch);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void bindInsert(PreparedStatement ps, IntegrationEvent event) throws SQLException {
+        ps.setString(1, event.getOrderId());
+        ps.setString(2, event.getStatus());
+        ps.setString(3, event.getMessage());
+        ps.setString(4, event.getPayload());
+        ps.setString(5, event.getOriginalPayload());
+        ps.setString(6, event.getPayloadFormat());
+        ps.setInt(7, event.getRetryCount());
+        ps.setString(8, event.getRetryHistory());
+        ps.setString(9, event.getErrorDetails());
+        ps.setString(10, event.getIntegrationName());
+        setTimestamp(ps, 11, event.getCreatedAt());
+        setTimestamp(ps, 12, event.getUpdatedAt());
+        setPayloadRef(ps, 13, event.getPayloadRef());
+        setPayloadRef(ps, 16, event.getOriginalPayloadRef());
+        setPayloadRef(ps, 19, event.getRetryHistoryRef());
+        ps.setString(22, event.getErrorSignature());
+    }
+
+    /**
+     * Keys come back in insert order, one per row of the batch
+     */
+    private static void readGeneratedIds(PreparedStatement ps, List<IntegrationEvent> batch) throws SQLException {
+        int row = 0;
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            while (keys.next() && row < batch.size()) {
+                batch.get(row++).setId(keys.getLong(1));
+            }
+        }
+        if (row != batch.size()) {
+            throw new IllegalStateException("Expected " + batch.size() + " generated ids, got " + row);
+        }
+    }
+
+    /**
+     * Ids of events in the given status for the given orders, grouped by {@link #retryKey(String, int)}
+     */
+    public Map<String, List<Long>> findIdsByStatusAndOrderIds(String status, Collection<String> orderIds) {
+        Map<String, List<Long>> ids = new HashMap<>();
+        for (List<String> chunk : chunks(new ArrayList<>(orderIds))) {
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(status);
+            args.addAll(chunk);
+            jdbcTemplate.query("SELECT id, order_id, retry_count FROM integration_events WHERE status = ? AND order_id IN ("
+                            + placeholders(chunk.size()) + ")",
+                    (RowCallbackHandler) rs -> ids.computeIfAbsent(retryKey(rs.getString(2), rs.getInt(3)),
+                            key -> new ArrayList<>()).add(rs.getLong(1)),
+                    args.toArray());
+        }
+        return ids;
+    }
+
+    /**
+     * Set-based status transition: UPDATE ... WHERE status = fromStatus AND id IN (...).
+     * Rows that already left fromStatus are not touched. A null errorDetails keeps the current value
+     * (and error_signature).
+     * Returns the number of rows updated.
+     */
+    @Transactional
+    public int transition(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails) {
+        return updateStatus(ids, fromStatus, toStatus,
+                "error_details = COALESCE(?, error_details), error_signature = COALESCE(?, error_signature)",
+                errorDetails, ErrorSignature.hashOf(errorDetails));
+    }
+
+    /**
+     * Same as transition, but also clears error_details and error_signature (a successful retry)
+     */
+    @Transactional
+    public int transitionClearingError(Collection<Long> ids, String fromStatus, String toStatus) {
+        return updateStatus(ids, fromStatus, toStatus, "error_details = NULL, error_signature = NULL");
+    }
+
+    /**
+     * Same as transition, but one conditional UPDATE ... WHERE id = ? AND status = fromStatus per id,
+     * sent as a single JDBC batch, so the per-row update counts tell which ids moved
+     */
+    @Transactional
+    public List<Long> transitionIds(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails) {
+        return updateStatusEach(ids, fromStatus, toStatus,
+                "error_details = COALESCE(?, error_details), error_signature = COALESCE(?, error_signature)",
+                errorDetails, ErrorSignature.hashOf(errorDetails));
+    }
+
+    /**
+     * Same as transitionClearingError, but returns the ids that were actually moved
+     */
+    @Transactional
+    public List<Long> transitionIdsClearingError(Collection<Long> ids, String fromStatus, String toStatus) {
+        return updateStatusEach(ids, fromStatus, toStatus, "error_details = NULL, error_signature = NULL");
+    }
+
+    private List<Long> updateStatusEach(Collection<Long> ids, String fromStatus, String toStatus, String setError,
+                                        Object... errorArgs) {
+        List<Long> idList = new ArrayList<>(ids);
+        if (idList.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(idList.size());
+        for (Long id : idList) {
+            List<Object> args = new ArrayList<>(errorArgs.length + 4);
+            args.add(toStatus);
+            args.addAll(Arrays.asList(errorArgs));
+            args.add(now);
+            args.add(id);
+            args.add(fromStatus);
+            batchArgs.add(args.toArray());
+        }
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE integration_events SET status = ?, " + setError
+                + ", updated_at = ? WHERE id = ? AND status = ?", batchArgs);
+        List<Long> moved = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                moved.add(idList.get(i));
+            }
+        }
+        return moved;
+    }
+
+    private int updateStatus(Collection<Long> ids, String fromStatus, String toStatus, String setError, Object... errorArgs) {
+        int updated = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (List<Long> chunk : chunks(new ArrayList<>(ids))) {
+            List<Object> args = new ArrayList<>(chunk.size() + 5);
+            args.add(toStatus);
+            args.addAll(Arrays.asList(errorArgs));
+            args.add(now);
+            args.add(fromStatus);
+            args.addAll(chunk);
+            updated += jdbcTemplate.update("UPDATE integration_events SET status = ?, " + setError + ", updated_at = ? "
+                    + "WHERE status = ? AND id IN (" + placeholders(chunk.size()) + ")", args.toArray());
+        }
+        return updated;
+    }
+
+    /**
+     * Conditional update of one payload ref: only applied while the row still holds expected
+     */
+    public boolean replacePayloadRef(Long id, PayloadRef.Field field, PayloadRef expected, PayloadRef replacement) {
+        String prefix = field.getColumnPrefix();
+        return jdbcTemplate.update("UPDATE integration_events SET " + prefix + "_segment = ?, "
+                        + prefix + "_offset = ?, " + prefix + "_length = ? "
+                        + "WHERE id = ? AND " + prefix + "_segment = ? AND " + prefix + "_offset = ?",
+                replacement == null ? null : replacement.getSegment(),
+                replacement == null ? null : replacement.getOffset(),
+                replacement == null ? null : replacement.getLength(),
+                id, expected.getSegment(), expected.getOffset()) == 1;
+    }
+
+    /**
+     * Next chunk of ids (keyset pagination, ascending) of events in the given status matching the
+     * optional filters. Only ids are read, never full rows.
+     */
+    public List<Long> findIdsAfter(String status, String integrationName, String errorPattern,
+                                   LocalDateTime createdFrom, LocalDateTime createdTo, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM integration_events WHERE status = ? AND id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(status);
+        args.add(afterId);
+        if (integrationName != null) {
+            sql.append(" AND integration_name = ?");
+            args.add(integrationName);
+        }
+        if (errorPattern != null) {
+            sql.append(" AND error_details LIKE ? ESCAPE '!'");
+            args.add("%" + errorPattern.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+        if (createdFrom != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(createdFrom));
+        }
+        if (createdTo != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(createdTo));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * SELECT only the projected columns (plus payload ref columns for payload fields)
+     */
+    public List<Map<String, Object>> findFields(EventProjection projection, String status, String orderId) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (String field : projection.getStoredFields()) {
+            columns.add(EventProjection.column(field));
+            PayloadRef.Field payloadField = EventProjection.payloadField(field);
+            if (payloadField != null) {
+                String prefix = payloadField.getColumnPrefix();
+                columns.add(prefix + "_segment");
+                columns.add(prefix + "_offset");
+                columns.add(prefix + "_length");
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", columns)).append(" FROM integration_events");
+        List<Object> args = new ArrayList<>();
+        if (status != null) {
+            sql.append(" WHERE status = ?");
+            args.add(status);
+        }
+        if (orderId != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" order_id = ?");
+            args.add(orderId);
+        }
+        sql.append(" ORDER BY id");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Map<String, Object> row = new HashMap<>();
+            for (String field : projection.getStoredFields()) {
+                row.put(field, readField(rs, field));
+            }
+            return row;
+        }, args.toArray());
+    }
+
+    private static Object readField(ResultSet rs, String field) throws SQLException {
+        String column = EventProjection.column(field);
+        switch (field) {
+            case "id":
+                return rs.getLong(column);
+            case "retryCount":
+                return rs.getInt(column);
+            case "createdAt":
+            case "updatedAt":
+                Timestamp timestamp = rs.getTimestamp(column);
+                return timestamp == null ? null : timestamp.toLocalDateTime();
+            default:
+                String text = rs.getString(column);
+                PayloadRef.Field payloadField = EventProjection.payloadField(field);
+                if (text != null || payloadField == null) {
+                    return text;
+                }
+                String prefix = payloadField.getColumnPrefix();
+                int segment = rs.getInt(prefix + "_segment");
+                return rs.wasNull() ? null
+                        : new PayloadRef(segment, rs.getLong(prefix + "_offset"), rs.getInt(prefix + "_length"));
+        }
+    }
+
+    public static String retryKey(String orderId, int retryCount) {
+        return orderId + "#" + retryCount;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + IN_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+
+    private static void setPayloadRef(PreparedStatement ps, int index, PayloadRef ref) throws SQLException {
+        if (ref == null) {
+            ps.setNull(index, Types.INTEGER);
+            ps.setNull(index + 1, Types.BIGINT);
+            ps.setNull(index + 2, Types.INTEGER);
+        } else {
+            ps.setInt(index, ref.getSegment());
+            ps.setLong(index + 1, ref.getOffset());
+            ps.setInt(index + 2, ref.getLength());
+        }
+    }
+}
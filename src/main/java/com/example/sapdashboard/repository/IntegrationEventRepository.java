@@ -1,6 +1,7 @@
 package com.example.sapdashboard.repository;
 
 import com.example.sapdashboard.model.IntegrationEvent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,7 +14,7 @@ import java.util.Optional;
 public interface IntegrationEventRepository extends JpaRepository<IntegrationEvent, Long> {
 
     // --- EXISTING QUERIES (FIXED) ---
-    @Query("SELECT e FROM IntegrationEvent e WHERE e.status = 'FAILED' AND e.payload IS NOT NULL ORDER BY e.createdAt DESC")
+    @Query("SELECT e FROM IntegrationEvent e WHERE e.status = 'FAILED' AND (e.payload IS NOT NULL OR e.payloadRef IS NOT NULL) ORDER BY e.createdAt DESC")
     List<IntegrationEvent> findFailedEventsWithPayload();
 
     // --- NEW METHODS ADDED (FROM ERROR LIST) ---
@@ -43,4 +44,16 @@ public interface IntegrationEventRepository extends JpaRepository<IntegrationEve
 
     @Query("SELECT COUNT(e) FROM IntegrationEvent e WHERE e.status = 'SUCCESS'")
     long countSuccessfulEvents();
+
+    List<IntegrationEvent> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    List<IntegrationEvent> findByErrorSignatureOrderByIdDesc(String errorSignature, Pageable pageable);
+
+    @Query("SELECT e FROM IntegrationEvent e WHERE e.payloadRef.segment = :segment "
+            + "OR e.originalPayloadRef.segment = :segment OR e.retryHistoryRef.segment = :segment")
+    List<IntegrationEvent> findByPayloadSegment(@Param("segment") int segment);
+
+    // Rows of [status, count]
+    @Query("SELECT e.status, COUNT(e) FROM IntegrationEvent e GROUP BY e.status")
+    List<Object[]> countGroupedByStatus();
 }
@@ -0,0 +1,161 @@
+package com.example.sapdashboard.repository;
+
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.model.PayloadRef;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Event store backed by the integration_events table: JPA for single events,
+ * {@link IntegrationEventBatchRepository} for batched and set-based work.
+ * Extracted field values live in event_field_index ({@link EventFieldIndexRepository}).
+ */
+@Component
+@ConditionalOnProperty(name = "dashboard.store.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaEventStore implements EventStore {
+
+    private final IntegrationEventRepository repository;
+    private final IntegrationEventBatchRepository batchRepository;
+    private final EventFieldIndexRepository fieldIndexRepository;
+
+    @Override
+    public IntegrationEvent save(IntegrationEvent event) {
+        return repository.save(event);
+    }
+
+    @Override
+    public void saveAll(Collection<IntegrationEvent> events) {
+        repository.saveAll(events);
+    }
+
+    @Override
+    public void insertAll(List<IntegrationEvent> events, int batchSize) {
+        batchRepository.insertAll(events, batchSize);
+    }
+
+    @Override
+    public int transition(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails) {
+        return batchRepository.transition(ids, fromStatus, toStatus, errorDetails);
+    }
+
+    @Override
+    public int transitionClearingError(Collection<Long> ids, String fromStatus, String toStatus) {
+        return batchRepository.transitionClearingError(ids, fromStatus, toStatus);
+    }
+
+    @Override
+    public List<Long> transitionIds(Collection<Long> ids, String fromStatus, String toStatus, String errorDetails) {
+        return batchRepository.transitionIds(ids, fromStatus, toStatus, errorDetails);
+    }
+
+    @Override
+    public List<Long> transitionIdsClearingError(Collection<Long> ids, String fromStatus, String toStatus) {
+        return batchRepository.transitionIdsClearingError(ids, fromStatus, toStatus);
+    }
+
+    @Override
+    public void replaceFieldValues(Long id, Map<String, List<String>> values) {
+        fieldIndexRepository.replace(id, values);
+    }
+
+    @Override
+    public void insertFieldValues(Map<Long, Map<String, List<String>>> valuesById) {
+        fieldIndexRepository.insertAll(valuesById);
+    }
+
+    @Override
+    public boolean replacePayloadRef(Long id, PayloadRef.Field field, PayloadRef expected, PayloadRef replacement) {
+        return batchRepository.replacePayloadRef(id, field, expected, replacement);
+    }
+
+    @Override
+    public Optional<IntegrationEvent> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public List<IntegrationEvent> findAllById(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return repository.existsById(id);
+    }
+
+    @Override
+    public List<IntegrationEvent> findAll() {
+        return repository.findAll();
+    }
+
+    @Override
+    public List<IntegrationEvent> findByStatus(String status) {
+        return repository.findByStatus(status);
+    }
+
+    @Override
+    public List<IntegrationEvent> findByOrderId(String orderId) {
+        return repository.findByOrderId(orderId);
+    }
+
+    @Override
+    public List<IntegrationEvent> findFailedWithPayload() {
+        return repository.findFailedEventsWithPayload();
+    }
+
+    @Override
+    public List<IntegrationEvent> findRecent(int limit) {
+        return repository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : repository.countGroupedByStatus()) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(EventProjection projection, String status, String orderId) {
+        return batchRepository.findFields(projection, status, orderId);
+    }
+
+    @Override
+    public List<IntegrationEvent> findByErrorSignature(String signature, int limit) {
+        return repository.findByErrorSignatureOrderByIdDesc(signature, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findIdsByFieldValue(String name, String value, int limit) {
+        return fieldIndexRepository.findIds(name, value, limit);
+    }
+
+    @Override
+    public List<IntegrationEvent> findByPayloadSegment(int segment) {
+        return repository.findByPayloadSegment(segment);
+    }
+
+    @Override
+    public Map<String, List<Long>> findIdsByStatusAndOrderIds(String status, Collection<String> orderIds) {
+        return batchRepository.findIdsByStatusAndOrderIds(status, orderIds);
+    }
+
+    @Override
+    public List<Long> findIdsAfter(String status, String integrationName, String errorPattern,
+                                   LocalDateTime createdFrom, LocalDateTime createdTo, long afterId, int limit) {
+        return batchRepository.findIdsAfter(status, integrationName, errorPattern, createdFrom, createdTo, afterId, limit);
+    }
+}
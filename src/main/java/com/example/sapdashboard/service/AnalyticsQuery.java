@@ -0,0 +1,171 @@
+package com.example.sapdashboard.service;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed form of /api/analytics?groupBy=&filter=&bucket=
+ *
+ * groupBy: comma list of status, integrationName
+ * bucket:  minute | hour | day (groups by createdAt truncated to the bucket)
+ * filter:  comma list of terms, values separated by '|':
+ *          status:FAILED|PENDING, integrationName:SAP_ORDER, since:7d, from:2024-01-01T00:00, to:..., minRetries:1
+ */
+@Getter
+public class AnalyticsQuery {
+
+    public static final String STATUS = "status";
+    public static final String INTEGRATION_NAME = "integrationName";
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private boolean groupByStatus;
+    private boolean groupByIntegration;
+    private String bucket;
+    private long bucketMillis;
+
+    private Set<String> statuses = Collections.emptySet();
+    private Set<String> integrationNames = Collections.emptySet();
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int minRetries;
+
+    public static AnalyticsQuery parse(String groupBy, String filter, String bucket) {
+        return parse(groupBy, filter, bucket, LocalDateTime.now());
+    }
+
+    static AnalyticsQuery parse(String groupBy, String filter, String bucket, LocalDateTime now) {
+        AnalyticsQuery query = new AnalyticsQuery();
+        for (String field : split(groupBy, ",")) {
+            if (STATUS.equals(field)) {
+                query.groupByStatus = true;
+            } else if (INTEGRATION_NAME.equals(field) || "integration".equals(field)) {
+                query.groupByIntegration = true;
+            } else {
+                throw new IllegalArgumentException("Unknown groupBy field '" + field + "' (expected status, integrationName)");
+            }
+        }
+        if (bucket != null && !bucket.isBlank()) {
+            query.bucket = bucket.trim().toLowerCase();
+            query.bucketMillis = bucketMillis(query.bucket);
+        }
+        for (String term : split(filter, ",")) {
+            int colon = term.indexOf(':');
+            if (colon <= 0 || colon == term.length() - 1) {
+                throw new IllegalArgumentException("Filter term '" + term + "' must look like field:value");
+            }
+            String field = term.substring(0, colon).trim();
+            String value = term.substring(colon + 1).trim();
+            switch (field) {
+                case STATUS:
+                    query.statuses = toUpperSet(split(value, "\\|"));
+                    break;
+                case INTEGRATION_NAME:
+                    query.integrationNames = new LinkedHashSet<>(split(value, "\\|"));
+                    break;
+                case "since":
+                    query.from = now.minusNanos(parseDuration(value) * 1_000_000L);
+                    break;
+                case "from":
+                    query.from = parseDateTime(value);
+                    break;
+                case "to":
+                    query.to = parseDateTime(value);
+                    break;
+                case "minRetries":
+                    query.minRetries = parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter field '" + field
+                            + "' (expected status, integrationName, since, from, to, minRetries)");
+            }
+        }
+        return query;
+    }
+
+    public List<String> getGroupBy() {
+        List<String> fields = new ArrayList<>();
+        if (groupByStatus) {
+            fields.add(STATUS);
+        }
+        if (groupByIntegration) {
+            fields.add(INTEGRATION_NAME);
+        }
+        return fields;
+    }
+
+    private static long bucketMillis(String bucket) {
+        switch (bucket) {
+            case "minute":
+                return MINUTE;
+            case "hour":
+                return HOUR;
+            case "day":
+                return DAY;
+            default:
+                throw new IllegalArgumentException("Unknown bucket '" + bucket + "' (expected minute, hour, day)");
+        }
+    }
+
+    /**
+     * 30m, 24h, 7d
+     */
+    static long parseDuration(String value) {
+        char unit = value.charAt(value.length() - 1);
+        long amount = parseInt(value.substring(0, value.length() - 1));
+        switch (unit) {
+            case 'm':
+                return amount * MINUTE;
+            case 'h':
+                return amount * HOUR;
+            case 'd':
+                return amount * DAY;
+            default:
+                throw new IllegalArgumentException("Unknown duration '" + value + "' (expected e.g. 30m, 24h, 7d)");
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date-time '" + value + "' (expected ISO-8601, e.g. 2024-01-01T00:00)");
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number '" + value + "'");
+        }
+    }
+
+    private static List<String> split(String value, String separator) {
+        if (value == null || value.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(separator)) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+
+    private static Set<String> toUpperSet(List<String> values) {
+        Set<String> result = new LinkedHashSet<>();
+        values.forEach(v -> result.add(v.toUpperCase()));
+        return result;
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Columnar copy of the analytic fields of every event, for ad-hoc group-by queries.
+ *
+ * Rows live in fixed-size chunks of primitive arrays: status as a dictionary byte, integrationName
+ * as a dictionary int, createdAt as epoch millis (wall clock taken as UTC) and retryCount.
+ * Queries scan the chunks in parallel with tight loops over the arrays and merge per-chunk aggregates.
+ *
+ * Rows are appended on ingest (bulk ingest included) and backfilled from the database at startup,
+ * and updated in place by id when an event's status changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsStore {
+
+    static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_STATUSES = 128;
+    private static final int MAX_INTEGRATIONS = 1 << 24;
+
+    private static final String BACKFILL_SQL =
+            "SELECT id, status, integration_name, created_at, retry_count FROM integration_events";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Dictionaries; code 0 stands for null (or overflow)
+    private final List<String> statusNames = new CopyOnWriteArrayList<>(Collections.singletonList(null));
+    private final Map<String, Integer> statusCodes = new ConcurrentHashMap<>();
+    private final List<String> integrationNames = new CopyOnWriteArrayList<>(Collections.singletonList(null));
+    private final Map<String, Integer> integrationIds = new ConcurrentHashMap<>();
+
+    // Guarded by this; readers only see the volatile chunk array and chunk sizes
+    private final LongIntHashMap rowById = new LongIntHashMap(1024);
+    private int rowCount;
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    private final AtomicBoolean backfilled = new AtomicBoolean();
+
+    // ===== WRITES =====
+
+    /**
+     * Append the event, or update its row in place when its id has been recorded before
+     */
+    public synchronized void append(IntegrationEvent event) {
+        write(event.getId(), event.getStatus(), event.getIntegrationName(), event.getCreatedAt(), event.getRetryCount());
+    }
+
+    public synchronized void appendAll(Collection<IntegrationEvent> events) {
+        for (IntegrationEvent event : events) {
+            append(event);
+        }
+    }
+
+    /**
+     * Change the status of a recorded event; unknown ids are ignored
+     */
+    public synchronized void updateStatus(long id, String status) {
+        int row = rowById.get(id, -1);
+        if (row >= 0) {
+            chunks[row / CHUNK_SIZE].status[row & (CHUNK_SIZE - 1)] = (byte) statusCode(status);
+        }
+    }
+
+    public synchronized int size() {
+        return rowCount;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void backfill() {
+        if (!backfilled.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int[] loaded = {0};
+        try {
+            jdbcTemplate.query(BACKFILL_SQL, rs -> {
+                long id = rs.getLong(1);
+                Timestamp createdAt = rs.getTimestamp(4);
+                synchronized (this) {
+                    // Rows written through append() while we were loading are newer
+                    if (rowById.get(id, -1) < 0) {
+                        write(id, rs.getString(2), rs.getString(3),
+                                createdAt == null ? null : createdAt.toLocalDateTime(), rs.getInt(5));
+                        loaded[0]++;
+                    }
+                }
+            });
+            log.info("Analytics store loaded {} events in {} ms", loaded[0], System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("Analytics store backfill failed, starting empty", e);
+        }
+    }
+
+    private void write(Long id, String status, String integrationName, LocalDateTime createdAt, int retryCount) {
+        int row = id == null ? -1 : rowById.get(id, -1);
+        boolean isNew = row < 0;
+        if (isNew) {
+            row = rowCount;
+            if (id != null) {
+                rowById.put(id, row);
+            }
+        }
+        Chunk chunk = chunkFor(row);
+        int index = row & (CHUNK_SIZE - 1);
+        chunk.status[index] = (byte) statusCode(status);
+        chunk.integration[index] = integrationId(integrationName);
+        chunk.createdAt[index] = toMillis(createdAt);
+        chunk.retryCount[index] = retryCount;
+        if (isNew) {
+            rowCount++;
+            // Volatile write publishes the row to scanning threads
+            chunk.size = index + 1;
+        }
+    }
+
+    private Chunk chunkFor(int row) {
+        int chunkIndex = row / CHUNK_SIZE;
+        Chunk[] current = chunks;
+        if (chunkIndex < current.length) {
+            return current[chunkIndex];
+        }
+        Chunk[] grown = Arrays.copyOf(current, chunkIndex + 1);
+        grown[chunkIndex] = new Chunk();
+        chunks = grown;
+        return grown[chunkIndex];
+    }
+
+    private int statusCode(String status) {
+        return dictionaryCode(status, statusCodes, statusNames, MAX_STATUSES);
+    }
+
+    private int integrationId(String integrationName) {
+        return dictionaryCode(integrationName, integrationIds, integrationNames, MAX_INTEGRATIONS);
+    }
+
+    private static int dictionaryCode(String value, Map<String, Integer> codes, List<String> names, int max) {
+        if (value == null) {
+            return 0;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (names.size() >= max) {
+            log.warn("Analytics dictionary full ({} entries), '{}' is counted as null", max, value);
+            return 0;
+        }
+        code = names.size();
+        names.add(value);
+        codes.put(value, code);
+        return code;
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value == null ? 0L : value.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Run a group-by over all rows: counts and summed retryCount per group
+     */
+    public Map<String, Object> query(AnalyticsQuery query) {
+        long start = System.nanoTime();
+        Plan plan = new Plan(query);
+        Partial total = Arrays.stream(chunks)
+                .parallel()
+                .map(chunk -> scan(chunk, plan))
+                .reduce(Partial::merge)
+                .orElseGet(Partial::new);
+
+        List<Integer> order = new ArrayList<>(total.groups);
+        for (int i = 0; i < total.groups; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingLong(i -> total.keys[i] >> 32)
+                .thenComparing(Comparator.<Integer>comparingLong(i -> total.counts[i]).reversed()));
+
+        List<Map<String, Object>> rows = new ArrayList<>(total.groups);
+        for (int i : order) {
+            long key = total.keys[i];
+            Map<String, Object> row = new LinkedHashMap<>();
+            if (plan.bucketMillis > 0) {
+                long bucketStart = (key >> 32) * plan.bucketMillis;
+                row.put("bucket", LocalDateTime.ofInstant(Instant.ofEpochMilli(bucketStart), ZoneOffset.UTC).toString());
+            }
+            if (plan.groupByStatus) {
+                row.put(AnalyticsQuery.STATUS, statusNames.get((int) (key & 0xFF)));
+            }
+            if (plan.groupByIntegration) {
+                row.put(AnalyticsQuery.INTEGRATION_NAME, integrationNames.get((int) ((key >>> 8) & 0xFFFFFF)));
+            }
+            row.put("count", total.counts[i]);
+            row.put("retries", total.retries[i]);
+            rows.add(row);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groupBy", query.getGroupBy());
+        result.put("bucket", query.getBucket());
+        result.put("rows", rows);
+        result.put("scannedRows", total.scanned);
+        result.put("matchedRows", total.matched);
+        result.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private static Partial scan(Chunk chunk, Plan plan) {
+        int size = chunk.size;
+        byte[] statuses = chunk.status;
+        int[] integrations = chunk.integration;
+        long[] createdAts = chunk.createdAt;
+        int[] retryCounts = chunk.retryCount;
+        boolean[] statusMask = plan.statusMask;
+        boolean[] integrationMask = plan.integrationMask;
+
+        Partial partial = new Partial();
+        partial.scanned = size;
+        for (int i = 0; i < size; i++) {
+            long createdAt = createdAts[i];
+            if (createdAt < plan.from || createdAt >= plan.to || retryCounts[i] < plan.minRetries) {
+                continue;
+            }
+            int status = statuses[i];
+            if (statusMask != null && !statusMask[status]) {
+                continue;
+            }
+            int integration = integrations[i];
+            if (integrationMask != null && (integration >= integrationMask.length || !integrationMask[integration])) {
+                continue;
+            }
+            partial.add(plan.key(status, integration, createdAt), 1, retryCounts[i]);
+        }
+        partial.matched = partial.sum();
+        return partial;
+    }
+
+    /**
+     * One block of rows. Arrays are fully allocated up front; size is the published row count.
+     */
+    private static final class Chunk {
+        final byte[] status = new byte[CHUNK_SIZE];
+        final int[] integration = new int[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+        final int[] retryCount = new int[CHUNK_SIZE];
+        volatile int size;
+    }
+
+    /**
+     * Query translated to dictionary codes and epoch millis
+     */
+    private final class Plan {
+        final boolean groupByStatus;
+        final boolean groupByIntegration;
+        final long bucketMillis;
+        final boolean[] statusMask;
+        final boolean[] integrationMask;
+        final long from;
+        final long to;
+        final int minRetries;
+
+        Plan(AnalyticsQuery query) {
+            groupByStatus = query.isGroupByStatus();
+            groupByIntegration = query.isGroupByIntegration();
+            bucketMillis = query.getBucketMillis();
+            from = query.getFrom() == null ? Long.MIN_VALUE : toMillis(query.getFrom());
+            to = query.getTo() == null ? Long.MAX_VALUE : toMillis(query.getTo());
+            minRetries = query.getMinRetries();
+            statusMask = mask(query.getStatuses(), statusCodes, MAX_STATUSES);
+            integrationMask = mask(query.getIntegrationNames(), integrationIds, integrationNames.size());
+        }
+
+        private boolean[] mask(Collection<String> values, Map<String, Integer> codes, int length) {
+            if (values.isEmpty()) {
+                return null;
+            }
+            boolean[] mask = new boolean[length];
+            for (String value : values) {
+                Integer code = codes.get(value);
+                if (code != null && code < length) {
+                    mask[code] = true;
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * bucket index (high 32 bits) | integration id (24 bits) | status code (8 bits)
+         */
+        long key(int status, int integration, long createdAt) {
+            long key = 0;
+            if (groupByStatus) {
+                key |= status;
+            }
+            if (groupByIntegration) {
+                key |= (long) integration << 8;
+            }
+            if (bucketMillis > 0) {
+                key |= Math.floorDiv(createdAt, bucketMillis) << 32;
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Aggregates of one chunk (or of several after merging)
+     */
+    private static final class Partial {
+        final LongIntHashMap slots = new LongIntHashMap(64);
+        long[] keys = new long[16];
+        long[] counts = new long[16];
+        long[] retries = new long[16];
+        int groups;
+        long scanned;
+        long matched;
+
+        // Rows arrive roughly in createdAt order, so consecutive rows usually share a group
+        private long lastKey;
+        private int lastSlot = -1;
+
+        void add(long key, long count, long retrySum) {
+            int slot;
+            if (lastSlot >= 0 && key == lastKey) {
+                slot = lastSlot;
+            } else {
+                slot = slots.get(key, -1);
+                if (slot < 0) {
+                    slot = newGroup(key);
+                }
+                lastKey = key;
+                lastSlot = slot;
+            }
+            counts[slot] += count;
+            retries[slot] += retrySum;
+        }
+
+        private int newGroup(long key) {
+            if (groups == keys.length) {
+                keys = Arrays.copyOf(keys, groups * 2);
+                counts = Arrays.copyOf(counts, groups * 2);
+                retries = Arrays.copyOf(retries, groups * 2);
+            }
+            keys[groups] = key;
+            slots.put(key, groups);
+            return groups++;
+        }
+
+        long sum() {
+            long total = 0;
+            for (int i = 0; i < groups; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < other.groups; i++) {
+                add(other.keys[i], other.counts[i], other.retries[i]);
+            }
+            scanned += other.scanned;
+            matched += other.matched;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.repository.EventStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Automatic retry of FAILED events whose errorDetails look transient.
+ *
+ * Each matching event gets a timer in an in-memory {@link TimingWheel} with exponential backoff and
+ * jitter, so nothing polls the events table. Due timers are handed to
+ * {@link EventService#autoRetryEvents(Map)} in batches, which re-checks status and canRetry().
+ * Timers are lost on restart; FAILED events are re-scheduled once at startup.
+ *
+ * Enabled with dashboard.auto-retry.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "dashboard.auto-retry.enabled", havingValue = "true")
+@Slf4j
+public class AutoRetryScheduler {
+
+    private static final int TICKS_PER_WHEEL = 512;
+    private static final EventProjection STARTUP_SCAN = EventProjection.parse("id,errorDetails,retryCount,updatedAt");
+
+    private final EventService eventService;
+    private final EventStore eventStore;
+    private final List<Pattern> errorPatterns;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int batchSize;
+    private final TimingWheel<ScheduledRetry> wheel;
+
+    // Events saved before the startup scan are picked up by the scan itself
+    private volatile boolean started;
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public AutoRetryScheduler(EventService eventService,
+                              EventStore eventStore,
+                              @Value("${dashboard.auto-retry.error-patterns:Connection timeout to SAP,Network error}") List<String> errorPatterns,
+                              @Value("${dashboard.auto-retry.base-delay-ms:30000}") long baseDelayMs,
+                              @Value("${dashboard.auto-retry.max-delay-ms:600000}") long maxDelayMs,
+                              @Value("${dashboard.auto-retry.batch-size:200}") int batchSize,
+                              @Value("${dashboard.auto-retry.tick-ms:500}") long tickMs) {
+        this.eventService = eventService;
+        this.eventStore = eventStore;
+        this.errorPatterns = errorPatterns.stream()
+                .map(p -> Pattern.compile(p.trim(), Pattern.CASE_INSENSITIVE))
+                .collect(Collectors.toList());
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tickMs, TICKS_PER_WHEEL, System.currentTimeMillis());
+    }
+
+    /**
+     * Schedule a retry if the event is FAILED with a transient error and has attempts left
+     */
+    public void onFailed(IntegrationEvent event) {
+        if (started) {
+            schedule(event);
+        }
+    }
+
+    private void schedule(IntegrationEvent event) {
+        if (event.getId() == null || !"FAILED".equals(event.getStatus()) || !event.canRetry()) {
+            return;
+        }
+        schedule(event.getId(), event.getRetryCount(), event.getErrorDetails(), System.currentTimeMillis());
+    }
+
+    /**
+     * Backoff counts from failedAtMillis, so an event that failed long ago is due right away
+     */
+    private void schedule(long eventId, int retryCount, String errorDetails, long failedAtMillis) {
+        if (!isTransient(errorDetails)) {
+            return;
+        }
+        long delay = backoff(retryCount);
+        wheel.schedule(new ScheduledRetry(eventId, retryCount), Math.max(System.currentTimeMillis(), failedAtMillis + delay));
+        scheduled.incrementAndGet();
+        log.debug("Auto-retry of event {} (attempt {}) in {} ms", eventId, retryCount + 1, delay);
+    }
+
+    public boolean isTransient(String errorDetails) {
+        if (errorDetails == null || errorDetails.isEmpty()) {
+            return false;
+        }
+        for (Pattern pattern : errorPatterns) {
+            if (pattern.matcher(errorDetails).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * base * 2^retryCount, capped, with equal jitter: half fixed, half random
+     */
+    long backoff(int retryCount) {
+        long exponential = baseDelayMs << Math.min(retryCount, 20);
+        long delay = Math.min(maxDelayMs, exponential);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleExistingFailures() {
+        started = true;
+        // Only the columns a timer needs, not whole events with their payloads
+        for (Map<String, Object> row : eventStore.findFields(STARTUP_SCAN, "FAILED", null)) {
+            int retryCount = (Integer) row.get("retryCount");
+            if (retryCount < IntegrationEvent.MAX_RETRIES) {
+                LocalDateTime updatedAt = (LocalDateTime) row.get("updatedAt");
+                schedule((Long) row.get("id"), retryCount, (String) row.get("errorDetails"),
+                        updatedAt == null ? System.currentTimeMillis()
+                                : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        log.info("Auto-retry enabled for {}; {} timers pending", errorPatterns, wheel.size());
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.auto-retry.tick-ms:500}")
+    public void tick() {
+        List<ScheduledRetry> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<ScheduledRetry> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            // Expected retry count per id: a timer is stale if the event was retried in the meantime
+            Map<Long, Integer> expected = new LinkedHashMap<>();
+            batch.forEach(r -> expected.put(r.eventId, r.retryCount));
+            try {
+                int sent = eventService.autoRetryEvents(expected);
+                retried.addAndGet(sent);
+                skipped.addAndGet(expected.size() - sent);
+            } catch (RuntimeException e) {
+                log.error("Auto-retry batch of {} events failed", expected.size(), e);
+            }
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "pendingTimers", (long) wheel.size(),
+                "scheduled", scheduled.get(),
+                "retried", retried.get(),
+                "skipped", skipped.get()
+        );
+    }
+
+    private static final class ScheduledRetry {
+        final long eventId;
+        final int retryCount;
+
+        ScheduledRetry(long eventId, int retryCount) {
+            this.eventId = eventId;
+            this.retryCount = retryCount;
+        }
+    }
+}
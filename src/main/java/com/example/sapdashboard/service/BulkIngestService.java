@@ -0,0 +1,228 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk ingest of events sent as NDJSON (one event per line) or as a JSON array.
+ * The body is parsed incrementally and persisted in fixed-size batches, and per-line
+ * results are streamed back as they are produced, so memory stays bounded regardless of body size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkIngestService {
+
+    private final EventService eventService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${dashboard.ingest.bulk.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Read events from the body and write a JSON result document to the response:
+     * {"results":[{"line":1,"orderId":"PO-1","status":"accepted"}, ...],"accepted":n,"rejected":m}
+     */
+    public void ingest(InputStream body, OutputStream response) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body);
+        try (JsonGenerator out = objectMapper.getFactory().createGenerator(response, JsonEncoding.UTF8)) {
+            BulkResultWriter results = new BulkResultWriter(out);
+            out.writeStartObject();
+            out.writeArrayFieldStart("results");
+
+            if (firstNonWhitespace(in) == '[') {
+                ingestArray(in, results);
+            } else {
+                ingestNdjson(in, results);
+            }
+            results.flushBatch();
+
+            out.writeEndArray();
+            out.writeNumberField("accepted", results.accepted);
+            out.writeNumberField("rejected", results.rejected);
+            out.writeEndObject();
+        }
+    }
+
+    /**
+     * NDJSON: every line is parsed on its own, so a malformed line is rejected without aborting the rest.
+     */
+    private void ingestNdjson(InputStream in, BulkResultWriter results) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(IntegrationEvent.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                results.add(lineNumber, reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                results.reject(lineNumber, null, e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * JSON array: elements are read one at a time with the streaming parser.
+     * Mapping errors reject a single element; a syntax error ends the stream.
+     */
+    private void ingestArray(InputStream in, BulkResultWriter results) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(IntegrationEvent.class);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            parser.nextToken(); // START_ARRAY
+            int arrayDepth = depth(parser.getParsingContext());
+            while (true) {
+                int lineNumber = 0;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null || token == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    lineNumber = parser.getTokenLocation().getLineNr();
+                    // Bound straight from the tokens, no intermediate tree
+                    results.add(lineNumber, reader.readValue(parser));
+                } catch (JsonParseException e) {
+                    results.reject(e.getLocation() != null ? e.getLocation().getLineNr() : lineNumber,
+                            null, "Malformed JSON, remaining input skipped: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonProcessingException e) {
+                    results.reject(lineNumber, null, e.getOriginalMessage());
+                    skipRestOfElement(parser, arrayDepth);
+                }
+            }
+        }
+    }
+
+    /**
+     * After a mapping error the parser can be anywhere inside the element: move it to the element's end
+     */
+    private static void skipRestOfElement(JsonParser parser, int arrayDepth) throws IOException {
+        while (depth(parser.getParsingContext()) > arrayDepth) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+        }
+    }
+
+    private static int depth(JsonStreamContext context) {
+        int depth = 0;
+        for (JsonStreamContext c = context; c != null; c = c.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static int firstNonWhitespace(BufferedInputStream in) throws IOException {
+        while (true) {
+            in.mark(1);
+            int c = in.read();
+            if (c == -1 || !Character.isWhitespace(c)) {
+                in.reset();
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Collects accepted events into a batch and writes per-line results once the batch is persisted.
+     */
+    private class BulkResultWriter {
+
+        private final JsonGenerator out;
+        private final List<IntegrationEvent> batch = new ArrayList<>();
+        private final List<Integer> batchLines = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+
+        BulkResultWriter(JsonGenerator out) {
+            this.out = out;
+        }
+
+        void add(int line, IntegrationEvent event) throws IOException {
+            if (event == null) {
+                reject(line, null, "Empty event");
+                return;
+            }
+            if (isBlank(event.getOrderId()) || isBlank(event.getStatus())) {
+                reject(line, event.getOrderId(), "orderId and status are required");
+                return;
+            }
+            batch.add(event);
+            batchLines.add(line);
+            if (batch.size() >= batchSize) {
+                flushBatch();
+            }
+        }
+
+        void flushBatch() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            String error = null;
+            try {
+                eventService.saveEvents(batch);
+            } catch (RuntimeException e) {
+                log.error("Bulk ingest batch of {} events failed", batch.size(), e);
+                error = "Batch insert failed: " + e.getMessage();
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (error == null) {
+                    writeResult(batchLines.get(i), batch.get(i).getOrderId(), "accepted", null);
+                    accepted++;
+                } else {
+                    reject(batchLines.get(i), batch.get(i).getOrderId(), error);
+                }
+            }
+            batch.clear();
+            batchLines.clear();
+            out.flush();
+        }
+
+        void reject(int line, String orderId, String message) throws IOException {
+            writeResult(line, orderId, "rejected", message);
+            rejected++;
+        }
+
+        private void writeResult(int line, String orderId, String status, String message) throws IOException {
+            out.writeStartObject();
+            out.writeNumberField("line", line);
+            if (orderId != null) {
+                out.writeStringField("orderId", orderId);
+            }
+            out.writeStringField("status", status);
+            if (message != null) {
+                out.writeStringField("message", message);
+            }
+            out.writeEndObject();
+        }
+
+        private boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+}
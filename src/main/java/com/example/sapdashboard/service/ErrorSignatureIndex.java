@@ -0,0 +1,323 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.ErrorSignature;
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.repository.EventStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Failure counts per error signature and integrationName, maintained as events fail.
+ *
+ * Failures are counted into time buckets (dashboard.errors.bucket-minutes). Each configured window
+ * (dashboard.errors.windows) keeps running totals: a failure is added to every window it falls in,
+ * and buckets are subtracted as they slide out. A top query therefore only sorts the signatures
+ * seen in the window and never scans events. Counts are rebuilt from FAILED events at startup.
+ */
+@Service
+@Slf4j
+public class ErrorSignatureIndex {
+
+    // Counted under this signature once dashboard.errors.max-signatures is reached
+    static final String OTHER = "0000000000000000";
+
+    private final EventStore eventStore;
+    private final long bucketMillis;
+    private final int maxSignatures;
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+    private final long retentionBuckets;
+
+    // All guarded by this
+    private final TreeMap<Long, Map<List<String>, long[]>> buckets = new TreeMap<>();
+    private final Map<String, Signature> signatures = new HashMap<>();
+    // Set by the first advance
+    private long currentBucket = Long.MIN_VALUE;
+    private boolean loaded;
+    private final Set<Long> recordedWhileLoading = new HashSet<>();
+
+    public ErrorSignatureIndex(EventStore eventStore,
+                               @Value("${dashboard.errors.bucket-minutes:5}") int bucketMinutes,
+                               @Value("${dashboard.errors.windows:1h,24h,7d}") String windows,
+                               @Value("${dashboard.errors.max-signatures:10000}") int maxSignatures) {
+        this.eventStore = eventStore;
+        this.bucketMillis = bucketMinutes * 60_000L;
+        this.maxSignatures = maxSignatures;
+        long longest = 1;
+        for (String name : windows.split(",")) {
+            long length = Math.max(1, AnalyticsQuery.parseDuration(name.trim()) / bucketMillis);
+            this.windows.put(name.trim(), new Window(length));
+            longest = Math.max(longest, length);
+        }
+        this.retentionBuckets = longest;
+    }
+
+    // ===== WRITES =====
+
+    /**
+     * Count a FAILED event with errorDetails at its createdAt (ingest)
+     */
+    public void record(IntegrationEvent event) {
+        record(event, event.getCreatedAt(), LocalDateTime.now());
+    }
+
+    /**
+     * Count a failure that happened at failedAt (e.g. a failed retry result)
+     */
+    public void record(IntegrationEvent event, LocalDateTime failedAt) {
+        record(event, failedAt, LocalDateTime.now());
+    }
+
+    synchronized void record(IntegrationEvent event, LocalDateTime failedAt, LocalDateTime now) {
+        if (!"FAILED".equals(event.getStatus())) {
+            return;
+        }
+        if (!loaded && event.getId() != null) {
+            recordedWhileLoading.add(event.getId());
+        }
+        count(event.getErrorDetails(), event.getErrorSignature(), event.getIntegrationName(), failedAt, now);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void load() {
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+        }
+        long start = System.currentTimeMillis();
+        int counted = 0;
+        try {
+            EventProjection projection = EventProjection.parse("id,errorDetails,errorSignature,integrationName,createdAt");
+            List<Map<String, Object>> rows = eventStore.findFields(projection, "FAILED", null);
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (this) {
+                for (Map<String, Object> row : rows) {
+                    // Failures recorded live while we were loading are already counted
+                    if (!recordedWhileLoading.contains((Long) row.get("id"))) {
+                        count((String) row.get("errorDetails"), (String) row.get("errorSignature"),
+                                (String) row.get("integrationName"), (LocalDateTime) row.get("createdAt"), now);
+                        counted++;
+                    }
+                }
+            }
+            log.info("Error signatures loaded from {} failed events in {} ms", counted, System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("Error signature load failed, counting from now on", e);
+        } finally {
+            synchronized (this) {
+                loaded = true;
+                recordedWhileLoading.clear();
+            }
+        }
+    }
+
+    /**
+     * hash is the stored error_signature; events saved before it existed have none and are hashed here
+     */
+    private void count(String errorDetails, String hash, String integrationName, LocalDateTime failedAt, LocalDateTime now) {
+        String text = null;
+        if (hash == null) {
+            text = ErrorSignature.normalize(errorDetails);
+            if (text == null) {
+                return;
+            }
+            hash = ErrorSignature.hash(text);
+        }
+        advance(bucketOf(now));
+        Signature signature = signatures.get(hash);
+        if (signature == null) {
+            if (text == null) {
+                text = ErrorSignature.normalize(errorDetails);
+            }
+            if (signatures.size() >= maxSignatures) {
+                hash = OTHER;
+                signature = signatures.computeIfAbsent(OTHER, h -> new Signature(OTHER, "<other>", null));
+            } else {
+                signature = new Signature(hash, text, errorDetails);
+                signatures.put(hash, signature);
+            }
+        }
+        LocalDateTime at = failedAt != null ? failedAt : now;
+        signature.seen(at);
+
+        // Future timestamps count as now; failures older than every window only count in the totals
+        long bucket = Math.min(bucketOf(at), currentBucket);
+        if (bucket <= currentBucket - retentionBuckets) {
+            return;
+        }
+        List<String> key = Arrays.asList(hash, integrationName);
+        buckets.computeIfAbsent(bucket, b -> new HashMap<>()).computeIfAbsent(key, k -> new long[1])[0]++;
+        for (Window window : windows.values()) {
+            if (bucket > currentBucket - window.length) {
+                window.add(key, 1);
+            }
+        }
+    }
+
+    /**
+     * Slide the windows to the bucket holding now: subtract the buckets that left each window
+     */
+    private void advance(long now) {
+        if (currentBucket == Long.MIN_VALUE) {
+            currentBucket = now;
+            return;
+        }
+        if (now <= currentBucket) {
+            return;
+        }
+        for (Window window : windows.values()) {
+            for (Map<List<String>, long[]> bucket
+                    : buckets.subMap(currentBucket - window.length, false, now - window.length, true).values()) {
+                bucket.forEach((key, count) -> window.add(key, -count[0]));
+            }
+        }
+        buckets.headMap(now - retentionBuckets, true).clear();
+        currentBucket = now;
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * The most frequent signatures in the window, optionally for one integrationName
+     */
+    public Map<String, Object> top(String window, int limit, String integrationName) {
+        return top(window, limit, integrationName, LocalDateTime.now());
+    }
+
+    synchronized Map<String, Object> top(String windowName, int limit, String integrationName, LocalDateTime now) {
+        Window window = windows.get(windowName);
+        if (window == null) {
+            throw new IllegalArgumentException("Unknown window '" + windowName + "' (expected one of "
+                    + String.join(", ", windows.keySet()) + ")");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        advance(bucketOf(now));
+
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, Map<String, Long>> byIntegration = new HashMap<>();
+        window.counts.forEach((key, count) -> {
+            if (integrationName == null || integrationName.equals(key.get(1))) {
+                counts.merge(key.get(0), count[0], Long::sum);
+                byIntegration.computeIfAbsent(key.get(0), h -> new LinkedHashMap<>())
+                        .put(String.valueOf(key.get(1)), count[0]);
+            }
+        });
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(counts.entrySet());
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long failures = 0;
+        for (Map.Entry<String, Long> entry : ranked) {
+            failures += entry.getValue();
+            if (rows.size() == limit) {
+                continue;
+            }
+            Signature signature = signatures.get(entry.getKey());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("signature", signature.hash);
+            row.put("text", signature.text);
+            row.put("count", entry.getValue());
+            row.put("byIntegration", byIntegration.get(entry.getKey()));
+            row.put("total", signature.total);
+            row.put("example", signature.example);
+            row.put("firstSeen", signature.firstSeen);
+            row.put("lastSeen", signature.lastSeen);
+            row.put("events", "/api/errors/" + signature.hash + "/events");
+            rows.add(row);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("window", windowName);
+        response.put("from", fromMillis((currentBucket - window.length + 1) * bucketMillis));
+        response.put("failures", failures);
+        response.put("signatures", rows);
+        return response;
+    }
+
+    /**
+     * Text and all-time counters of one signature, or null if it was never seen
+     */
+    public synchronized Map<String, Object> describe(String hash) {
+        Signature signature = signatures.get(hash);
+        if (signature == null) {
+            return null;
+        }
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("signature", signature.hash);
+        description.put("text", signature.text);
+        description.put("total", signature.total);
+        description.put("firstSeen", signature.firstSeen);
+        description.put("lastSeen", signature.lastSeen);
+        return description;
+    }
+
+    private long bucketOf(LocalDateTime time) {
+        return Math.floorDiv(time.toInstant(ZoneOffset.UTC).toEpochMilli(), bucketMillis);
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), 0, ZoneOffset.UTC);
+    }
+
+    private static class Window {
+        final long length;
+        final Map<List<String>, long[]> counts = new HashMap<>();
+
+        Window(long length) {
+            this.length = length;
+        }
+
+        void add(List<String> key, long delta) {
+            long[] count = counts.computeIfAbsent(key, k -> new long[1]);
+            count[0] += delta;
+            if (count[0] <= 0) {
+                counts.remove(key);
+            }
+        }
+    }
+
+    private static class Signature {
+        final String hash;
+        final String text;
+        // First errorDetails seen with this signature
+        final String example;
+        long total;
+        LocalDateTime firstSeen;
+        LocalDateTime lastSeen;
+
+        Signature(String hash, String text, String example) {
+            this.hash = hash;
+            this.text = text;
+            this.example = example;
+        }
+
+        void seen(LocalDateTime at) {
+            total++;
+            if (firstSeen == null || at.isBefore(firstSeen)) {
+                firstSeen = at;
+            }
+            if (lastSeen == null || at.isAfter(lastSeen)) {
+                lastSeen = at;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.sapdashboard.service;
+
+/**
+ * Thrown when a write targets an event whose row lives in another replica's store
+ * (materialized view mode); the request has to go to that replica
+ */
+public class EventNotLocalException extends RuntimeException {
+
+    private final String orderId;
+    private final String instanceId;
+
+    public EventNotLocalException(String orderId, String instanceId) {
+        super("Event " + orderId + " is stored on "
+                + (instanceId != null ? "instance " + instanceId : "another instance")
+                + "; send the request to that instance");
+        this.orderId = orderId;
+        this.instanceId = instanceId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -1,15 +1,35 @@
 package com.example.sapdashboard.service;
 
+import com.example.sapdashboard.dto.BulkReprocessRequest;
 import com.example.sapdashboard.dto.RetryEventMessage;
 import com.example.sapdashboard.dto.RetryEventRequest;
+import com.example.sapdashboard.dto.RetryResultMessage;
+import com.example.sapdashboard.jfr.RetryJfrEvent;
+import com.example.sapdashboard.jfr.RetrySendJfrEvent;
+import com.example.sapdashboard.jfr.SaveJfrEvent;
+import com.example.sapdashboard.kafka.KafkaProducer;
+import com.example.sapdashboard.kafka.MaterializedEventView;
+import com.example.sapdashboard.model.ErrorSignature;
+import com.example.sapdashboard.model.EventProjection;
 import com.example.sapdashboard.model.IntegrationEvent;
-import com.example.sapdashboard.repository.IntegrationEventRepository;
+import com.example.sapdashboard.model.PayloadRef;
+import com.example.sapdashboard.repository.EventStore;
+import com.example.sapdashboard.repository.IntegrationEventBatchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,63 +37,407 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EventService {
 
-    private final IntegrationEventRepository repository;
+    // JPA or in-memory, per dashboard.store.engine
+    private final EventStore eventStore;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaProducer kafkaProducer;
+    private final PayloadFormatService payloadFormatService;
+    private final StoreVersion storeVersion;
+    private final AnalyticsStore analyticsStore;
+    private final ErrorSignatureIndex errorSignatures;
+    private final FieldExtractor fieldExtractor;
+    // Concurrent and recent callers of the read methods below share one execution
+    private final SingleFlight singleFlight;
+    // Present when dashboard.auto-retry.enabled=true; looked up lazily since it calls back into this service
+    private final ObjectProvider<AutoRetryScheduler> autoRetryScheduler;
+    // Present when dashboard.view.mode=materialized: list/stat reads come from the compacted topic
+    private final Optional<MaterializedEventView> materializedView;
+    // Present when dashboard.payload-log.enabled=true: payload bodies live off-heap, events keep refs
+    private final Optional<PayloadLog> payloadLog;
+
+    @Value("${dashboard.ingest.bulk.batch-size:500}")
+    private int bulkBatchSize;
+
+    @Value("${dashboard.ingest.mode:direct}")
+    private IngestMode ingestMode;
+
+    @Value("${dashboard.ingest.publish-timeout-ms:10000}")
+    private long publishTimeoutMs;
+
+    @Value("${dashboard.reprocess.chunk-size:5000}")
+    private int reprocessChunkSize;
 
     /**
      * Get all events
      */
     public List<IntegrationEvent> getAllEvents() {
-        return repository.findAll();
+        return singleFlight.get("all", null, true, () -> {
+            if (materializedView.isPresent()) {
+                return shared(new ArrayList<>(materializedView.get().all()));
+            }
+            return shared(withPayloads(eventStore.findAll()));
+        });
     }
 
     /**
      * Get events by status
      */
     public List<IntegrationEvent> getEventsByStatus(String status) {
-        return repository.findByStatus(status);
+        return singleFlight.get("status", status, true, () -> {
+            if (materializedView.isPresent()) {
+                return shared(materializedView.get().byStatus(status));
+            }
+            return shared(withPayloads(eventStore.findByStatus(status)));
+        });
     }
 
     /**
      * Get events by order ID
      */
     public List<IntegrationEvent> getEventsByOrderId(String orderId) {
-        return repository.findByOrderId(orderId);
+        return singleFlight.get("orderId", orderId, true, () -> {
+            if (materializedView.isPresent()) {
+                return shared(materializedView.get().byOrderId(orderId));
+            }
+            return shared(withPayloads(eventStore.findByOrderId(orderId)));
+        });
+    }
+
+    /**
+     * Newest events whose payload had the given value for an extracted field (see FieldExtractor)
+     */
+    public List<IntegrationEvent> getEventsByFieldValue(String name, String value, int limit) {
+        if (!fieldExtractor.getNames().contains(name)) {
+            throw new IllegalArgumentException("Unknown field '" + name + "' (expected one of "
+                    + String.join(", ", fieldExtractor.getNames()) + ")");
+        }
+        String stored = FieldExtractor.normalize(value);
+        if (stored == null) {
+            throw new IllegalArgumentException("value must not be blank");
+        }
+        List<IntegrationEvent> events = new ArrayList<>(
+                withPayloads(eventStore.findAllById(eventStore.findIdsByFieldValue(name, stored, limit))));
+        events.sort(Comparator.comparing(IntegrationEvent::getId).reversed());
+        return events;
+    }
+
+    /**
+     * Newest events whose errorDetails have the given error signature (see ErrorSignatureIndex)
+     */
+    public List<IntegrationEvent> getEventsByErrorSignature(String signature, int limit) {
+        return withPayloads(eventStore.findByErrorSignature(signature, limit));
+    }
+
+    /**
+     * Only the selected fields of events, optionally filtered by status or orderId (?fields=).
+     * The store reads just those columns; payload bodies and derived fields are only produced if selected.
+     */
+    public List<Map<String, Object>> getEventFields(EventProjection projection, String status, String orderId) {
+        String key = String.join(",", projection.getFields()) + "|" + status + "|" + orderId;
+        return singleFlight.get("fields", key, true, () -> shared(loadEventFields(projection, status, orderId)));
+    }
+
+    private List<Map<String, Object>> loadEventFields(EventProjection projection, String status, String orderId) {
+        List<Map<String, Object>> rows;
+        if (materializedView.isPresent()) {
+            List<IntegrationEvent> events = orderId != null ? materializedView.get().byOrderId(orderId)
+                    : status != null ? materializedView.get().byStatus(status)
+                    : new ArrayList<>(materializedView.get().all());
+            rows = events.stream().map(projection::read).collect(Collectors.toList());
+        } else {
+            rows = eventStore.findFields(projection, status, orderId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> response = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            row.replaceAll((field, value) -> value instanceof PayloadRef
+                    ? payloadLog.map(payloads -> payloads.read((PayloadRef) value)).orElse(null) : value);
+            response.add(projection.toResponse(row, now));
+        }
+        return response;
     }
 
     /**
      * Get failed events with payload
      */
     public List<IntegrationEvent> getFailedEventsWithPayload() {
-        return repository.findFailedEventsWithPayload();
+        return withPayloads(eventStore.findFailedWithPayload());
     }
 
     /**
      * Get recent events (last 100)
-     * FIXED: Using collect(Collectors.toList()) instead of toList() for Java 11
      */
     public List<IntegrationEvent> getRecentEvents() {
-        return repository.findAll().stream()
-                .sorted(Comparator.comparing(IntegrationEvent::getCreatedAt).reversed())
-                .limit(100)
-                .collect(Collectors.toList());
+        return singleFlight.get("recent", null, true, () -> {
+            if (materializedView.isPresent()) {
+                return shared(materializedView.get().recent(100));
+            }
+            return shared(withPayloads(eventStore.findRecent(100)));
+        });
+    }
+
+    private static <T> List<T> shared(List<T> result) {
+        return Collections.unmodifiableList(result);
     }
 
     /**
      * Save event (from external API or Kafka)
      */
     public IntegrationEvent saveEvent(IntegrationEvent event) {
+        SaveJfrEvent jfr = new SaveJfrEvent();
+        jfr.begin();
+        applyDefaults(event);
+        boolean existing = event.getId() != null;
+        int payloadLength = event.getPayload() != null ? event.getPayload().length() : 0;
+        long start = System.nanoTime();
+        offloadPayloads(event);
+        long offloaded = System.nanoTime();
+        IntegrationEvent savedEvent = withPayloads(eventStore.save(event));
+        long stored = System.nanoTime();
+        storeVersion.bump();
+        analyticsStore.append(savedEvent);
+        errorSignatures.record(savedEvent);
+        indexFields(savedEvent, existing);
+        autoRetryScheduler.ifAvailable(scheduler -> scheduler.onFailed(savedEvent));
+        jfr.commitPhases(savedEvent.getOrderId(), savedEvent.getStatus(), payloadLength,
+                offloaded - start, stored - offloaded, System.nanoTime() - stored);
+        return savedEvent;
+    }
+
+    /**
+     * INGEST EVENT FROM REST API
+     * DIRECT: save, then publish with a source marker so this instance's consumer skips it
+     * KAFKA: publish only and wait for the broker ack; the consumer is the single writer
+     */
+    public IntegrationEvent ingestEvent(IntegrationEvent event) {
+        if (ingestMode == IngestMode.KAFKA) {
+            applyDefaults(event);
+            try {
+                kafkaProducer.sendToEventsTopic(event, kafkaProducer.restSource())
+                        .get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while publishing event to Kafka", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new RuntimeException("Failed to publish event to Kafka", e);
+            }
+            return event;
+        }
+
+        IntegrationEvent savedEvent = saveEvent(event);
+        try {
+            kafkaProducer.sendToEventsTopic(savedEvent, kafkaProducer.restSource());
+        } catch (Exception e) {
+            log.error("Error publishing to Kafka", e);
+        }
+        return savedEvent;
+    }
+
+    /**
+     * Whether the consumer should persist a record with the given source marker
+     */
+    public boolean shouldConsume(String source) {
+        if (source != null && source.startsWith(KafkaProducer.SOURCE_STATE)) {
+            return false;
+        }
+        return ingestMode == IngestMode.KAFKA || !kafkaProducer.restSource().equals(source);
+    }
+
+    /**
+     * Publish the new state of an existing event so materialized views on other instances see it
+     */
+    private void publishStateChange(IntegrationEvent event) {
+        if (materializedView.isEmpty()) {
+            return;
+        }
+        try {
+            kafkaProducer.sendToEventsTopic(event, kafkaProducer.stateSource());
+        } catch (Exception e) {
+            log.error("Error publishing state change for {}", event.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Save an event created by this instance (sample data) and publish its state for materialized views
+     */
+    public IntegrationEvent saveEventAndPublishState(IntegrationEvent event) {
+        IntegrationEvent savedEvent = saveEvent(event);
+        publishStateChange(savedEvent);
+        return savedEvent;
+    }
+
+    /**
+     * Id in this instance's store of the event a by-id write (retry, reprocess) refers to.
+     * With the materialized view, listed events carry the id of whichever replica published them,
+     * so the orderId selects the event (its latest row here); when this replica has no row for it,
+     * {@link EventNotLocalException} names the replica that does. Otherwise the id is used as is.
+     */
+    public Long resolveEventId(Long id, String orderId) {
+        if (materializedView.isEmpty()) {
+            return id;
+        }
+        String key = requireOrderId(orderId);
+        return eventStore.findByOrderId(key).stream()
+                .map(IntegrationEvent::getId)
+                .max(Comparator.naturalOrder())
+                .orElseThrow(() -> {
+                    MaterializedEventView view = materializedView.get();
+                    if (view.latest(key).isEmpty()) {
+                        return new RuntimeException("Event not found");
+                    }
+                    return new EventNotLocalException(key, view.publisherOf(key).orElse(null));
+                });
+    }
+
+    private static String requireOrderId(String orderId) {
+        if (orderId == null || orderId.isBlank()) {
+            throw new IllegalArgumentException("orderId is required when dashboard.view.mode=materialized");
+        }
+        return orderId.trim();
+    }
+
+    public IngestMode getIngestMode() {
+        return ingestMode;
+    }
+
+    /**
+     * Save a batch of events (from bulk ingest) with JDBC batched inserts.
+     * The generated ids are set on the passed events, which then go through the same post-save
+     * steps as saveEvent (analytics, error signatures, field index, auto-retry).
+     */
+    public void saveEvents(List<IntegrationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        insertEvents(events);
+        publishBulk(events);
+    }
+
+    /**
+     * Save a turn of events read from the events topic (ingest bulkheads). New events go in one
+     * batched insert like saveEvents, but nothing is published: they are on the topic already.
+     * Events that carry an id are saved one at a time like saveEvent, keeping the turn's order.
+     */
+    public void saveConsumedEvents(List<IntegrationEvent> events) {
+        List<IntegrationEvent> run = new ArrayList<>();
+        for (IntegrationEvent event : events) {
+            if (event.getId() == null) {
+                run.add(event);
+                continue;
+            }
+            if (!run.isEmpty()) {
+                insertConsumed(run);
+                run = new ArrayList<>();
+            }
+            saveEvent(event);
+        }
+        if (!run.isEmpty()) {
+            insertConsumed(run);
+        }
+    }
+
+    // The bulkheads save a failed turn again one event at a time: ids read back before the
+    // insert rolled back must not turn those saves into updates
+    private void insertConsumed(List<IntegrationEvent> events) {
+        try {
+            insertEvents(events);
+        } catch (RuntimeException e) {
+            events.forEach(event -> event.setId(null));
+            throw e;
+        }
+    }
+
+    private void insertEvents(List<IntegrationEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (IntegrationEvent event : events) {
+            applyDefaults(event);
+            if (event.getUpdatedAt() == null) {
+                event.setUpdatedAt(now);
+            }
+            offloadPayloads(event);
+        }
+        eventStore.insertAll(events, bulkBatchSize);
+        storeVersion.bump();
+        analyticsStore.appendAll(events);
+        for (IntegrationEvent event : events) {
+            withPayloads(event);
+            errorSignatures.record(event);
+            autoRetryScheduler.ifAvailable(scheduler -> scheduler.onFailed(event));
+        }
+        indexNewFields(events);
+    }
+
+    /**
+     * Publish bulk events for materialized views. They are stored here rather than by a consumer:
+     * in direct mode they go out like REST events (other replicas save them, this one skips them);
+     * in kafka mode the consumer would save them again, so they go out as state snapshots.
+     */
+    private void publishBulk(List<IntegrationEvent> events) {
+        if (materializedView.isEmpty()) {
+            return;
+        }
+        String source = ingestMode == IngestMode.KAFKA ? kafkaProducer.stateSource() : kafkaProducer.restSource();
+        for (IntegrationEvent event : events) {
+            try {
+                kafkaProducer.sendToEventsTopic(event, source);
+            } catch (Exception e) {
+                log.error("Error publishing bulk event {} to Kafka", event.getOrderId(), e);
+            }
+        }
+    }
+
+    /**
+     * Write the payload's extracted field values to the field index; replacing clears what the
+     * event had indexed before (it was saved again, e.g. its payload was edited), a new event
+     * takes the insert-only path
+     */
+    private void indexFields(IntegrationEvent event, boolean replacing) {
+        if (fieldExtractor.getNames().isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> values = extractFields(event);
+        if (replacing) {
+            eventStore.replaceFieldValues(event.getId(), values);
+        } else if (!values.isEmpty()) {
+            eventStore.insertFieldValues(Map.of(event.getId(), values));
+        }
+    }
+
+    /**
+     * Field index rows of a batch of new events, written together
+     */
+    private void indexNewFields(List<IntegrationEvent> events) {
+        if (fieldExtractor.getNames().isEmpty()) {
+            return;
+        }
+        Map<Long, Map<String, List<String>>> valuesById = new LinkedHashMap<>();
+        for (IntegrationEvent event : events) {
+            Map<String, List<String>> values = extractFields(event);
+            if (!values.isEmpty()) {
+                valuesById.put(event.getId(), values);
+            }
+        }
+        if (!valuesById.isEmpty()) {
+            eventStore.insertFieldValues(valuesById);
+        }
+    }
+
+    private Map<String, List<String>> extractFields(IntegrationEvent event) {
+        String format = payloadFormatService.resolveFormat(event.getPayload(), event.getPayloadFormat());
+        return fieldExtractor.extract(event.getPayload(), format);
+    }
+
+    private void applyDefaults(IntegrationEvent event) {
         if (event.getCreatedAt() == null) {
             event.setTimestamp(LocalDateTime.now());
         }
-        if (event.getRetryCount() == 0) {
-            event.setRetryCount(0);
-        }
         // Store original payload if not already stored
         if (event.getPayload() != null && event.getOriginalPayload() == null) {
             event.setOriginalPayload(event.getPayload());
         }
-        return repository.save(event);
+        // Always derived here, never taken from the client
+        event.setErrorSignature(ErrorSignature.hashOf(event.getErrorDetails()));
     }
 
     /**
@@ -81,18 +445,23 @@ public class EventService {
      * Used by controller to show: total, success, failed, pending counts and success rate
      */
     public Map<String, Object> getDashboardStats() {
-        List<IntegrationEvent> allEvents = repository.findAll();
-
-        long totalEvents = allEvents.size();
-        long successCount = allEvents.stream()
-                .filter(e -> "SUCCESS".equals(e.getStatus()))
-                .count();
-        long failedCount = allEvents.stream()
-                .filter(e -> "FAILED".equals(e.getStatus()))
-                .count();
-        long pendingCount = allEvents.stream()
-                .filter(e -> "PENDING".equals(e.getStatus()))
-                .count();
+        return getDashboardStats(true);
+    }
+
+    /**
+     * allowStale=false for responses tagged with the store version: the result is at least as new as the tag
+     */
+    public Map<String, Object> getDashboardStats(boolean allowStale) {
+        return singleFlight.get("stats", null, allowStale, () -> loadDashboardStats(allowStale));
+    }
+
+    private Map<String, Object> loadDashboardStats(boolean allowStale) {
+        Map<String, Long> counts = getEventCountByStatus(allowStale);
+
+        long totalEvents = counts.values().stream().mapToLong(Long::longValue).sum();
+        long successCount = counts.getOrDefault("SUCCESS", 0L);
+        long failedCount = counts.getOrDefault("FAILED", 0L);
+        long pendingCount = counts.getOrDefault("PENDING", 0L);
 
         double successRate = totalEvents > 0 ? (successCount * 100.0) / totalEvents : 0.0;
 
@@ -113,7 +482,7 @@ public class EventService {
         if (orderId == null || orderId.trim().isEmpty()) {
             return getRecentEvents();
         }
-        return repository.findByOrderId(orderId.trim());
+        return getEventsByOrderId(orderId.trim());
     }
 
     /**
@@ -124,32 +493,84 @@ public class EventService {
         if (status == null || status.trim().isEmpty()) {
             return getRecentEvents();
         }
-        return repository.findByStatus(status.trim());
+        return getEventsByStatus(status.trim());
     }
 
     /**
      * REPROCESS EVENT (SIMPLE RETRY WITHOUT MODAL)
      * Used by controller for quick retry from dashboard
-     * This just changes status to PENDING for re-processing
+     * This just changes status to PENDING for re-processing.
+     * Conditional UPDATE ... WHERE status = 'FAILED', so concurrent operators cannot both win.
      */
     public void reprocessEvent(Long eventId) {
         log.info("Reprocessing event with ID: {}", eventId);
 
-        IntegrationEvent event = repository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
-
         // Only allow reprocessing of FAILED events
-        if (!"FAILED".equals(event.getStatus())) {
+        if (eventStore.transition(List.of(eventId), "FAILED", "PENDING", null) == 0) {
+            if (!eventStore.existsById(eventId)) {
+                throw new RuntimeException("Event not found");
+            }
             throw new RuntimeException("Only FAILED events can be reprocessed");
         }
+        afterReprocess(List.of(eventId));
 
-        // Change status to PENDING
-        event.setStatus("PENDING");
+        log.info("Event {} reprocessed successfully", eventId);
+    }
 
-        // Save
-        repository.save(event);
+    /**
+     * BULK REPROCESS BY FILTER
+     * Moves every FAILED event matching the filter to PENDING inside the database: ids are read
+     * in keyset chunks and each chunk is one conditional UPDATE ... WHERE status = 'FAILED'.
+     * No entities are loaded (except to feed a materialized view, when enabled).
+     */
+    public Map<String, Object> bulkReprocess(BulkReprocessRequest filter) {
+        if (filter.getStatus() != null && !"FAILED".equalsIgnoreCase(filter.getStatus())) {
+            throw new IllegalArgumentException("Only FAILED events can be reprocessed");
+        }
+        String errorPattern = filter.getErrorPattern() == null || filter.getErrorPattern().isEmpty()
+                ? null : filter.getErrorPattern();
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        long matched = 0;
+        long reprocessed = 0;
+        int chunks = 0;
+        while (true) {
+            List<Long> ids = eventStore.findIdsAfter("FAILED", filter.getIntegrationName(), errorPattern,
+                    filter.getCreatedFrom(), filter.getCreatedTo(), afterId, reprocessChunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            chunks++;
+            matched += ids.size();
+            int updated = eventStore.transition(ids, "FAILED", "PENDING", null);
+            reprocessed += updated;
+            if (updated > 0) {
+                afterReprocess(ids);
+            }
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < reprocessChunkSize) {
+                break;
+            }
+        }
+        long tookMs = System.currentTimeMillis() - start;
+        log.info("Bulk reprocess {}: {} of {} matched events moved to PENDING in {} chunks ({} ms)",
+                filter, reprocessed, matched, chunks, tookMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "success");
+        result.put("matched", matched);
+        result.put("reprocessed", reprocessed);
+        result.put("chunks", chunks);
+        result.put("tookMs", tookMs);
+        return result;
+    }
 
-        log.info("Event {} reprocessed successfully", event.getOrderId());
+    private void afterReprocess(List<Long> ids) {
+        storeVersion.bump();
+        ids.forEach(id -> analyticsStore.updateStatus(id, "PENDING"));
+        if (materializedView.isPresent()) {
+            withPayloads(eventStore.findAllById(ids)).forEach(this::publishStateChange);
+        }
     }
 
     /**
@@ -157,10 +578,21 @@ public class EventService {
      * User edits payload in modal and submits
      */
     public void retryFailedEvent(RetryEventRequest request) {
+        withPinnedPayloadRefs(() -> {
+            retryFailedEventPinned(request);
+            return null;
+        });
+    }
+
+    private void retryFailedEventPinned(RetryEventRequest request) {
         log.info("Retrying event with ID: {} with updated payload", request.getEventId());
+        RetryJfrEvent jfr = new RetryJfrEvent();
+        jfr.begin();
 
         // Get the original event
-        IntegrationEvent originalEvent = repository.findFailedEventById(request.getEventId())
+        IntegrationEvent originalEvent = eventStore.findById(request.getEventId())
+                .filter(event -> "FAILED".equals(event.getStatus()))
+                .map(this::withPayloads)
                 .orElseThrow(() -> new RuntimeException("Event not found or not in FAILED status"));
 
         // Check if can retry (max 3 times)
@@ -168,6 +600,13 @@ public class EventService {
             throw new RuntimeException("Maximum retry attempts (3) reached for this event");
         }
 
+        // Reject malformed XML/JSON before it reaches the retry topic
+        long validateStart = System.nanoTime();
+        String payloadFormat = payloadFormatService.resolveFormat(request.getUpdatedPayload(),
+                request.getPayloadFormat() != null ? request.getPayloadFormat() : originalEvent.getPayloadFormat());
+        payloadFormatService.requireValid(request.getUpdatedPayload(), payloadFormat);
+        request.setPayloadFormat(payloadFormat);
+
         // Increment retry count
         originalEvent.incrementRetry();
 
@@ -182,15 +621,165 @@ public class EventService {
         originalEvent.setStatus("PENDING");
 
         // Save updated event
-        repository.save(originalEvent);
+        long storeStart = System.nanoTime();
+        offloadPayloads(originalEvent);
+        eventStore.save(originalEvent);
+        withPayloads(originalEvent);
+        storeVersion.bump();
+        analyticsStore.append(originalEvent);
+        indexFields(originalEvent, true);
 
         // Create retry message and send to Kafka retry topic
+        long publishStart = System.nanoTime();
+        publishStateChange(originalEvent);
         sendRetryEventToKafka(originalEvent, request);
+        jfr.commitPhases(originalEvent.getOrderId(), originalEvent.getRetryCount(), request.getUpdatedPayload(),
+                storeStart - validateStart, publishStart - storeStart, System.nanoTime() - publishStart);
 
         log.info("Event {} sent to retry topic. Retry attempt: {}",
                 originalEvent.getOrderId(), originalEvent.getRetryCount());
     }
 
+    /**
+     * AUTOMATIC RETRY (from AutoRetryScheduler)
+     * Re-sends the current payload of FAILED events that are still at the expected retry count,
+     * saving all of them together and flushing the retry messages as one producer batch.
+     * FAILED -> PENDING is a conditional transition, so an event a manual retry or reprocess moved
+     * in the meantime is skipped; only the ids it actually moved are sent.
+     * Returns the number of events sent to the retry topic.
+     */
+    public int autoRetryEvents(Map<Long, Integer> expectedRetryCounts) {
+        return withPinnedPayloadRefs(() -> autoRetryEventsPinned(expectedRetryCounts));
+    }
+
+    private int autoRetryEventsPinned(Map<Long, Integer> expectedRetryCounts) {
+        Map<Long, IntegrationEvent> due = new LinkedHashMap<>();
+        for (IntegrationEvent event : withPayloads(eventStore.findAllById(expectedRetryCounts.keySet()))) {
+            Integer expected = expectedRetryCounts.get(event.getId());
+            if ("FAILED".equals(event.getStatus()) && event.canRetry()
+                    && expected != null && expected == event.getRetryCount()) {
+                due.put(event.getId(), event);
+            }
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<IntegrationEvent> retried = new ArrayList<>();
+        List<RetryEventRequest> requests = new ArrayList<>();
+        for (Long id : eventStore.transitionIds(due.keySet(), "FAILED", "PENDING", null)) {
+            IntegrationEvent event = due.get(id);
+            RetryEventRequest request = new RetryEventRequest(event.getId(), event.getPayload(),
+                    event.getPayloadFormat(), "Automatic retry after transient error");
+            event.incrementRetry();
+            updateRetryHistory(event, request);
+            event.setStatus("PENDING");
+            retried.add(event);
+            requests.add(request);
+        }
+        if (retried.isEmpty()) {
+            return 0;
+        }
+
+        // These rows are PENDING now and were moved by us: write the retry count and history
+        retried.forEach(this::offloadPayloads);
+        eventStore.saveAll(retried);
+        withPayloads(retried);
+        storeVersion.bump();
+        for (int i = 0; i < retried.size(); i++) {
+            analyticsStore.append(retried.get(i));
+            publishStateChange(retried.get(i));
+            sendRetryEventToKafka(retried.get(i), requests.get(i));
+        }
+        kafkaTemplate.flush();
+
+        log.info("Auto-retried {} of {} due events", retried.size(), expectedRetryCounts.size());
+        return retried.size();
+    }
+
+    /**
+     * APPLY RETRY RESULTS (from RetryResultConsumer)
+     * Moves PENDING events to SUCCESS/FAILED. Results are matched by orderId and retryAttempt
+     * (every PENDING event with that key); results for another attempt, or for events that already
+     * left PENDING, change nothing. SUCCESS clears the error text.
+     * Each target status and error text is one JDBC batch of conditional UPDATEs, whose counts tell
+     * which events actually moved; only those are updated in analytics and re-published.
+     * Returns the number of events updated.
+     */
+    public int applyRetryResults(List<RetryResultMessage> results) {
+        // Last result wins for a given orderId + attempt
+        Map<String, RetryResultMessage> byKey = new LinkedHashMap<>();
+        for (RetryResultMessage result : results) {
+            if (result.getOrderId() == null || result.getRetryAttempt() == null
+                    || !("SUCCESS".equals(result.getStatus()) || "FAILED".equals(result.getStatus()))) {
+                log.warn("Ignoring malformed retry result: {}", result);
+                continue;
+            }
+            byKey.put(IntegrationEventBatchRepository.retryKey(result.getOrderId(), result.getRetryAttempt()), result);
+        }
+        if (byKey.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> orderIds = byKey.values().stream().map(RetryResultMessage::getOrderId).collect(Collectors.toSet());
+        Map<String, List<Long>> pendingIds = eventStore.findIdsByStatusAndOrderIds("PENDING", orderIds);
+
+        // Group event ids by (status, errorDetails) so each group is a single UPDATE
+        Map<List<String>, List<Long>> groups = new LinkedHashMap<>();
+        Map<Long, RetryResultMessage> resultById = new HashMap<>();
+        byKey.forEach((key, result) -> {
+            List<Long> ids = pendingIds.get(key);
+            if (ids == null) {
+                return;
+            }
+            String errorDetails = "FAILED".equals(result.getStatus()) ? result.getErrorDetails() : null;
+            groups.computeIfAbsent(Arrays.asList(result.getStatus(), errorDetails), k -> new ArrayList<>()).addAll(ids);
+            ids.forEach(id -> resultById.put(id, result));
+        });
+
+        List<Long> moved = new ArrayList<>();
+        for (Map.Entry<List<String>, List<Long>> group : groups.entrySet()) {
+            String status = group.getKey().get(0);
+            moved.addAll("SUCCESS".equals(status)
+                    ? eventStore.transitionIdsClearingError(group.getValue(), "PENDING", status)
+                    : eventStore.transitionIds(group.getValue(), "PENDING", status, group.getKey().get(1)));
+        }
+        if (moved.isEmpty()) {
+            return 0;
+        }
+        storeVersion.bump();
+
+        List<Long> failedIds = new ArrayList<>();
+        for (Long id : moved) {
+            RetryResultMessage result = resultById.get(id);
+            analyticsStore.updateStatus(id, result.getStatus());
+            if ("FAILED".equals(result.getStatus())) {
+                failedIds.add(id);
+                autoRetryScheduler.ifAvailable(scheduler -> scheduler.onFailed(failedAfterRetry(id, result)));
+            }
+        }
+        if (!failedIds.isEmpty()) {
+            LocalDateTime failedAt = LocalDateTime.now();
+            eventStore.findAllById(failedIds).forEach(event -> errorSignatures.record(event, failedAt));
+        }
+        if (materializedView.isPresent()) {
+            withPayloads(eventStore.findAllById(moved)).forEach(this::publishStateChange);
+        }
+
+        log.info("Applied {} retry results ({} events updated)", results.size(), moved.size());
+        return moved.size();
+    }
+
+    private IntegrationEvent failedAfterRetry(Long id, RetryResultMessage result) {
+        IntegrationEvent event = new IntegrationEvent();
+        event.setId(id);
+        event.setOrderId(result.getOrderId());
+        event.setStatus("FAILED");
+        event.setRetryCount(result.getRetryAttempt());
+        event.setErrorDetails(result.getErrorDetails());
+        return event;
+    }
+
     /**
      * Update retry history with JSON format
      */
@@ -237,8 +826,14 @@ public class EventService {
             retryMessage.setUserNotes(request.getUserNotes());
             retryMessage.setPayloadFormat(request.getPayloadFormat());
 
-            // Send to retry topic
-            kafkaTemplate.send("sap-integration-order-retry", event.getOrderId(), retryMessage);
+            // Send to retry topic; the flight recorder event runs until the broker ack
+            RetrySendJfrEvent jfr = new RetrySendJfrEvent();
+            jfr.begin();
+            long sendStart = System.nanoTime();
+            CompletableFuture<?> ack = kafkaTemplate.send("sap-integration-order-retry", event.getOrderId(), retryMessage);
+            long sendNanos = System.nanoTime() - sendStart;
+            ack.whenComplete((result, failure) -> jfr.commitAck(retryMessage.getOrderId(),
+                    retryMessage.getRetryAttempt(), retryMessage.getUpdatedPayload(), sendNanos, failure == null));
 
             log.info("Retry event sent to Kafka topic: sap-integration-order-retry");
         } catch (Exception e) {
@@ -247,20 +842,98 @@ public class EventService {
         }
     }
 
+    /**
+     * Event details for a by-id read: from the materialized view by orderId when enabled, so every
+     * replica can answer, otherwise from the local store
+     */
+    public IntegrationEvent getEventDetails(Long eventId, String orderId) {
+        if (materializedView.isPresent()) {
+            return materializedView.get().latest(requireOrderId(orderId))
+                    .orElseThrow(() -> new RuntimeException("Event not found"));
+        }
+        return getEventDetails(eventId);
+    }
+
     /**
      * Get event details including payload
      */
     public IntegrationEvent getEventDetails(Long eventId) {
-        return repository.findById(eventId)
+        return eventStore.findById(eventId)
+                .map(this::withPayloads)
+                .orElseThrow(() -> new RuntimeException("Event not found"));
+    }
+
+    /**
+     * Raw body of one payload field as UTF-8 bytes, or null if the event has none.
+     * With the payload log this is a read-only view of the mapped segment, not a heap copy.
+     */
+    public ByteBuffer getPayloadBody(Long eventId, String orderId, PayloadRef.Field field) {
+        if (materializedView.isPresent()) {
+            // View events carry their payload text, never payload log refs
+            String text = field.getText(getEventDetails(eventId, orderId));
+            return text == null ? null : ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return getPayloadBody(eventId, field);
+    }
+
+    private ByteBuffer getPayloadBody(Long eventId, PayloadRef.Field field) {
+        IntegrationEvent event = eventStore.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
+        PayloadRef ref = field.getRef(event);
+        if (ref != null && payloadLog.isPresent()) {
+            return payloadLog.get().slice(ref);
+        }
+        String text = field.getText(event);
+        return text == null ? null : ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ===== PAYLOAD LOG =====
+
+    private void offloadPayloads(IntegrationEvent event) {
+        payloadLog.ifPresent(payloads -> payloads.offload(event));
+    }
+
+    private IntegrationEvent withPayloads(IntegrationEvent event) {
+        payloadLog.ifPresent(payloads -> payloads.hydrate(event));
+        return event;
+    }
+
+    private List<IntegrationEvent> withPayloads(List<IntegrationEvent> events) {
+        payloadLog.ifPresent(payloads -> events.forEach(payloads::hydrate));
+        return events;
+    }
+
+    private <T> T withPinnedPayloadRefs(Supplier<T> work) {
+        return payloadLog.isPresent() ? payloadLog.get().withPinnedRefs(work) : work.get();
+    }
+
+    /**
+     * Current store version, for ETags on aggregate endpoints
+     */
+    public long getStoreVersion() {
+        return storeVersion.current();
     }
 
     /**
      * Get event count by status
      */
     public Map<String, Long> getEventCountByStatus() {
-        List<IntegrationEvent> allEvents = repository.findAll();
-        return allEvents.stream()
-                .collect(Collectors.groupingBy(IntegrationEvent::getStatus, Collectors.counting()));
+        return getEventCountByStatus(true);
+    }
+
+    public Map<String, Long> getEventCountByStatus(boolean allowStale) {
+        return singleFlight.get("counts", null, allowStale, () -> {
+            if (materializedView.isPresent()) {
+                return Collections.unmodifiableMap(materializedView.get().countByStatus());
+            }
+            return Collections.unmodifiableMap(eventStore.countByStatus());
+        });
+    }
+
+    /**
+     * Executions and shared results of the coalesced read methods
+     */
+    public Map<String, Object> getCoalescingStats() {
+        return singleFlight.getStats();
     }
 }
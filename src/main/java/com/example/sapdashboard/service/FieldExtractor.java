@@ -0,0 +1,296 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.EventFieldValue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Business keys (customerId, material, ...) pulled out of payloads for the field index.
+ *
+ * Rules are configured per field as dashboard.extract.rules.&lt;name&gt;=XML:&lt;path&gt;,JSON:&lt;pointer&gt;
+ *   XML:  absolute element path, "*" matches any element, a final "@attr" reads an attribute
+ *         (/SalesOrder/LineItems/LineItem/Material, /SalesOrder/@id)
+ *   JSON: JSON pointer, "*" matches any member or array element (/lineItems/*&#47;material)
+ *
+ * Payloads are read once with the streaming parsers, evaluating every rule of the format on the
+ * way; JSON subtrees no rule can reach are skipped. Malformed payloads yield what was read before
+ * the error. Values are trimmed, capped at {@value #MAX_VALUE_LENGTH} chars and
+ * {@value #MAX_VALUES_PER_FIELD} distinct values per field.
+ */
+@Service
+@Slf4j
+public class FieldExtractor {
+
+    static final int MAX_VALUE_LENGTH = 255;
+    static final int MAX_VALUES_PER_FIELD = 20;
+    private static final String ANY = "*";
+
+    private final List<Rule> xmlRules = new ArrayList<>();
+    private final List<Rule> jsonRules = new ArrayList<>();
+    private final Set<String> names = new LinkedHashSet<>();
+    private final JsonFactory jsonFactory;
+    private final XMLInputFactory xmlInputFactory;
+
+    @Autowired
+    public FieldExtractor(Environment environment, ObjectMapper objectMapper) {
+        this(Binder.get(environment).bind("dashboard.extract.rules", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap()), objectMapper.getFactory());
+    }
+
+    FieldExtractor(Map<String, String> rules, JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        rules.forEach((name, spec) -> {
+            if (name.length() > EventFieldValue.MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Field name '" + name + "' is longer than "
+                        + EventFieldValue.MAX_NAME_LENGTH + " characters");
+            }
+            for (String part : spec.split(",")) {
+                addRule(name, part.trim());
+            }
+            names.add(name);
+        });
+        if (!names.isEmpty()) {
+            log.info("Extracting fields {} from payloads", names);
+        }
+    }
+
+    /**
+     * Names of the configured fields
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Distinct values per field found in the payload, in document order; empty if nothing matched
+     */
+    public Map<String, List<String>> extract(String payload, String format) {
+        Map<String, Set<String>> values = new LinkedHashMap<>();
+        if (payload == null || payload.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            if (PayloadFormatService.XML.equals(format) && !xmlRules.isEmpty()) {
+                extractXml(payload, values);
+            } else if (PayloadFormatService.JSON.equals(format) && !jsonRules.isEmpty()) {
+                extractJson(payload, values);
+            }
+        } catch (XMLStreamException | IOException e) {
+            log.debug("Stopped extracting fields at malformed {} payload: {}", format, e.getMessage());
+        }
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        values.forEach((name, found) -> result.put(name, new ArrayList<>(found)));
+        return result;
+    }
+
+    // ===== XML =====
+
+    private void extractXml(String payload, Map<String, Set<String>> values) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(payload));
+        List<String> path = new ArrayList<>();
+        // Element rules being captured, with the depth of the element and its text so far
+        List<Capture> captures = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        path.add(reader.getLocalName());
+                        for (Rule rule : xmlRules) {
+                            if (!rule.matches(path)) {
+                                continue;
+                            }
+                            if (rule.attribute == null) {
+                                captures.add(new Capture(rule, path.size()));
+                            } else {
+                                add(values, rule.name, reader.getAttributeValue(null, rule.attribute));
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        for (Capture capture : captures) {
+                            capture.text.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        for (int i = captures.size() - 1; i >= 0; i--) {
+                            Capture capture = captures.get(i);
+                            if (capture.depth == path.size()) {
+                                add(values, capture.rule.name, capture.text.toString());
+                                captures.remove(i);
+                            }
+                        }
+                        path.remove(path.size() - 1);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    // ===== JSON =====
+
+    private void extractJson(String payload, Map<String, Set<String>> values) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    List<String> path = path(parser.getParsingContext().getParent());
+                    if (!path.isEmpty() && !reachable(path)) {
+                        parser.skipChildren();
+                    }
+                } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    List<String> path = path(parser.getParsingContext());
+                    for (Rule rule : jsonRules) {
+                        if (rule.matches(path)) {
+                            add(values, rule.name, parser.getText());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Member names / array indexes from the root to the context's current position
+     */
+    private static List<String> path(JsonStreamContext context) {
+        List<String> path = new ArrayList<>();
+        for (JsonStreamContext c = context; c != null && !c.inRoot(); c = c.getParent()) {
+            path.add(0, c.inArray() ? String.valueOf(c.getCurrentIndex()) : c.getCurrentName());
+        }
+        return path;
+    }
+
+    private boolean reachable(List<String> prefix) {
+        for (Rule rule : jsonRules) {
+            if (rule.steps.length > prefix.size() && rule.matchesPrefix(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===== RULES =====
+
+    private void addRule(String name, String spec) {
+        int colon = spec.indexOf(':');
+        String format = colon < 0 ? "" : spec.substring(0, colon).trim().toUpperCase();
+        String path = colon < 0 ? "" : spec.substring(colon + 1).trim();
+        if (!path.startsWith("/") || path.length() < 2) {
+            throw new IllegalArgumentException("Invalid extraction rule '" + spec + "' for " + name
+                    + " (expected XML:/Element/Path or JSON:/json/pointer)");
+        }
+        String[] steps = path.substring(1).split("/", -1);
+        if (PayloadFormatService.XML.equals(format)) {
+            String attribute = null;
+            String last = steps[steps.length - 1];
+            if (last.startsWith("@")) {
+                attribute = last.substring(1);
+                steps = Arrays.copyOf(steps, steps.length - 1);
+            }
+            xmlRules.add(new Rule(name, steps, attribute));
+        } else if (PayloadFormatService.JSON.equals(format)) {
+            for (int i = 0; i < steps.length; i++) {
+                steps[i] = steps[i].replace("~1", "/").replace("~0", "~");
+            }
+            jsonRules.add(new Rule(name, steps, null));
+        } else {
+            throw new IllegalArgumentException("Unknown format in extraction rule '" + spec + "' for " + name
+                    + " (expected XML or JSON)");
+        }
+    }
+
+    /**
+     * A value as it is stored in the index: trimmed and capped at {@value #MAX_VALUE_LENGTH} chars
+     * (null if blank). Lookup values go through this too, so long values still match.
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        return value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+    }
+
+    private static void add(Map<String, Set<String>> values, String name, String value) {
+        value = normalize(value);
+        if (value == null) {
+            return;
+        }
+        Set<String> found = values.computeIfAbsent(name, n -> new LinkedHashSet<>());
+        if (found.size() < MAX_VALUES_PER_FIELD) {
+            found.add(value);
+        }
+    }
+
+    private static class Rule {
+        final String name;
+        final String[] steps;
+        final String attribute;
+
+        Rule(String name, String[] steps, String attribute) {
+            this.name = name;
+            this.steps = steps;
+            this.attribute = attribute;
+        }
+
+        boolean matches(List<String> path) {
+            return path.size() == steps.length && matchesPrefix(path);
+        }
+
+        boolean matchesPrefix(List<String> path) {
+            for (int i = 0; i < path.size(); i++) {
+                if (!ANY.equals(steps[i]) && !steps[i].equals(path.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Capture {
+        final Rule rule;
+        final int depth;
+        final StringBuilder text = new StringBuilder();
+
+        Capture(Rule rule, int depth) {
+            this.rule = rule;
+            this.depth = depth;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.sapdashboard.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One on-demand JDK Flight Recorder recording for the admin API.
+ *
+ * The recording is bounded by age and size and uses a JDK settings file ("default" keeps the
+ * overhead around 1%), plus the dashboard's own events in com.example.sapdashboard.jfr.
+ * Dumps are written to dashboard.jfr.dir; only the newest dashboard.jfr.max-dumps are kept.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    private static final DateTimeFormatter DUMP_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final String settings;
+    private final int defaultMaxAgeMinutes;
+    private final int defaultMaxSizeMb;
+    private final int maxDumps;
+
+    private Recording recording;
+
+    public FlightRecorderService(@Value("${dashboard.jfr.dir:${java.io.tmpdir}/sap-dashboard/jfr}") String directory,
+                                 @Value("${dashboard.jfr.settings:default}") String settings,
+                                 @Value("${dashboard.jfr.max-age-minutes:30}") int defaultMaxAgeMinutes,
+                                 @Value("${dashboard.jfr.max-size-mb:100}") int defaultMaxSizeMb,
+                                 @Value("${dashboard.jfr.max-dumps:5}") int maxDumps) {
+        this.directory = Paths.get(directory);
+        this.settings = settings;
+        this.defaultMaxAgeMinutes = defaultMaxAgeMinutes;
+        this.defaultMaxSizeMb = defaultMaxSizeMb;
+        this.maxDumps = maxDumps;
+    }
+
+    /**
+     * Start the recording; null limits fall back to the configured defaults
+     */
+    public synchronized Map<String, Object> start(Integer maxAgeMinutes, Integer maxSizeMb) {
+        if (isRunning()) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        int maxAge = maxAgeMinutes != null ? maxAgeMinutes : defaultMaxAgeMinutes;
+        int maxSize = maxSizeMb != null ? maxSizeMb : defaultMaxSizeMb;
+        if (maxAge <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("maxAgeMinutes and maxSizeMb must be positive");
+        }
+        closeRecording();
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings '" + settings + "'", e);
+        }
+        recording.setName("sap-dashboard");
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(maxAge));
+        recording.setMaxSize(maxSize * 1024L * 1024L);
+        recording.start();
+        log.info("Flight recording started (settings={}, maxAge={}m, maxSize={}MB)", settings, maxAge, maxSize);
+        return getStatus();
+    }
+
+    /**
+     * Write what the running recording holds to a new .jfr file; the recording keeps running
+     */
+    public synchronized Path dump() {
+        if (!isRunning()) {
+            throw new IllegalStateException("No recording is running");
+        }
+        Path file = directory.resolve("sap-dashboard-" + LocalDateTime.now().format(DUMP_NAME) + ".jfr");
+        try {
+            Files.createDirectories(directory);
+            recording.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write recording to " + file, e);
+        }
+        log.info("Flight recording dumped to {}", file);
+        deleteOldDumps();
+        return file;
+    }
+
+    /**
+     * Dump the recording, then stop and discard it
+     */
+    public synchronized Path stop() {
+        Path file = dump();
+        closeRecording();
+        log.info("Flight recording stopped");
+        return file;
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", isRunning());
+        status.put("settings", settings);
+        if (recording != null) {
+            status.put("state", recording.getState().name());
+            status.put("startTime", recording.getStartTime());
+            status.put("maxAgeMinutes", recording.getMaxAge() != null ? recording.getMaxAge().toMinutes() : null);
+            status.put("maxSizeMb", recording.getMaxSize() / (1024 * 1024));
+            status.put("sizeBytes", recording.getSize());
+        }
+        status.put("directory", directory.toString());
+        status.put("dumps", listDumps().stream().map(path -> path.getFileName().toString()).collect(Collectors.toList()));
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeRecording();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Dumps in this directory, oldest first (the names sort by time)
+     */
+    private List<Path> listDumps() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith("sap-dashboard-") && name.endsWith(".jfr");
+            }).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + directory, e);
+        }
+    }
+
+    private void deleteOldDumps() {
+        List<Path> dumps = listDumps();
+        for (int i = 0; i < dumps.size() - maxDumps; i++) {
+            try {
+                Files.deleteIfExists(dumps.get(i));
+            } catch (IOException e) {
+                log.warn("Cannot delete old recording {}", dumps.get(i), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.sapdashboard.service;
+
+/**
+ * Who writes events posted to /api/events into the database.
+ * Set with dashboard.ingest.mode.
+ */
+public enum IngestMode {
+
+    /**
+     * REST path saves the event, then publishes it tagged with its source.
+     * The consumer skips records this instance published itself.
+     */
+    DIRECT,
+
+    /**
+     * REST path only publishes (and waits for the broker ack).
+     * The consumer is the single writer for every record on the topic.
+     */
+    KAFKA
+}
@@ -0,0 +1,20 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.dto.PayloadValidationResult;
+
+/**
+ * Thrown when a retry payload is not well-formed XML/JSON
+ */
+public class InvalidPayloadException extends RuntimeException {
+
+    private final PayloadValidationResult result;
+
+    public InvalidPayloadException(PayloadValidationResult result) {
+        super(result.describe());
+        this.result = result;
+    }
+
+    public PayloadValidationResult getResult() {
+        return result;
+    }
+}
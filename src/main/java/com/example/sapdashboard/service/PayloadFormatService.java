@@ -0,0 +1,346 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.dto.PayloadValidationResult;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Validation, pretty-printing and minifying of XML/JSON payloads.
+ * Everything runs on streaming parsers (StAX, Jackson core), one token at a time,
+ * so multi-MB IDocs never get materialized as a DOM or JSON tree.
+ */
+@Service
+@Slf4j
+public class PayloadFormatService {
+
+    public static final String XML = "XML";
+    public static final String JSON = "JSON";
+
+    private static final String INDENT = "    ";
+
+    private final JsonFactory jsonFactory;
+    private final XMLInputFactory xmlInputFactory;
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newFactory();
+
+    public PayloadFormatService(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        // Payloads come from users: no DTDs, no external entities
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+
+    /**
+     * Normalize the declared format, or guess it from the first character when none is given
+     */
+    public String resolveFormat(String payload, String declaredFormat) {
+        if (declaredFormat != null && !declaredFormat.isBlank()) {
+            return declaredFormat.trim().toUpperCase();
+        }
+        if (payload != null) {
+            for (int i = 0; i < payload.length(); i++) {
+                char c = payload.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    continue;
+                }
+                if (c == '<') {
+                    return XML;
+                }
+                if (c == '{' || c == '[') {
+                    return JSON;
+                }
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check that the payload is well-formed; reports the line/column of the first error
+     */
+    public PayloadValidationResult validate(String payload, String declaredFormat) {
+        String format = resolveFormat(payload, declaredFormat);
+        if (payload == null || payload.isBlank()) {
+            return PayloadValidationResult.error(format, null, null, "Payload is empty");
+        }
+        if (XML.equals(format)) {
+            return validateXml(payload);
+        }
+        if (JSON.equals(format)) {
+            return validateJson(payload);
+        }
+        return PayloadValidationResult.error(format, null, null, "Unsupported payload format (expected XML or JSON)");
+    }
+
+    /**
+     * Throw {@link InvalidPayloadException} unless the payload is well-formed
+     */
+    public void requireValid(String payload, String declaredFormat) {
+        PayloadValidationResult result = validate(payload, declaredFormat);
+        if (!result.isValid()) {
+            throw new InvalidPayloadException(result);
+        }
+    }
+
+    /**
+     * Re-indent the payload (4 spaces for XML, Jackson default printer for JSON)
+     */
+    public String prettyPrint(String payload, String declaredFormat) {
+        return reformat(payload, declaredFormat, true);
+    }
+
+    /**
+     * Strip insignificant whitespace from the payload
+     */
+    public String minify(String payload, String declaredFormat) {
+        return reformat(payload, declaredFormat, false);
+    }
+
+    private String reformat(String payload, String declaredFormat, boolean pretty) {
+        String format = resolveFormat(payload, declaredFormat);
+        try {
+            if (XML.equals(format)) {
+                return reformatXml(payload, pretty);
+            }
+            if (JSON.equals(format)) {
+                return reformatJson(payload, pretty);
+            }
+        } catch (XMLStreamException e) {
+            throw new InvalidPayloadException(xmlError(e));
+        } catch (JsonProcessingException e) {
+            throw new InvalidPayloadException(jsonError(e));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to format payload", e);
+        }
+        throw new InvalidPayloadException(
+                PayloadValidationResult.error(format, null, null, "Unsupported payload format (expected XML or JSON)"));
+    }
+
+    // ===== XML =====
+
+    private PayloadValidationResult validateXml(String payload) {
+        XMLStreamReader reader = null;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(new StringReader(payload));
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            return PayloadValidationResult.ok(XML);
+        } catch (XMLStreamException e) {
+            return xmlError(e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private String reformatXml(String payload, boolean pretty) throws XMLStreamException {
+        StringWriter out = new StringWriter(payload.length());
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(payload));
+        XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(out);
+        // One entry per open element: has it written a child element yet?
+        Deque<Boolean> hasChildElements = new ArrayDeque<>();
+        boolean wroteAny = false;
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (pretty && (wroteAny || !hasChildElements.isEmpty())) {
+                            newLine(writer, hasChildElements.size());
+                        }
+                        if (!hasChildElements.isEmpty()) {
+                            hasChildElements.pop();
+                            hasChildElements.push(true);
+                        }
+                        writeStartElement(reader, writer);
+                        hasChildElements.push(false);
+                        wroteAny = true;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (hasChildElements.pop() && pretty) {
+                            newLine(writer, hasChildElements.size());
+                        }
+                        writer.writeEndElement();
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        if (!reader.isWhiteSpace()) {
+                            writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        writer.writeCData(reader.getText());
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        if (pretty) {
+                            if (wroteAny || !hasChildElements.isEmpty()) {
+                                newLine(writer, hasChildElements.size());
+                            }
+                            writer.writeComment(reader.getText());
+                            wroteAny = true;
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                        break;
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        writer.writeEntityRef(reader.getLocalName());
+                        break;
+                    default:
+                        // START_DOCUMENT, END_DOCUMENT and DTD need no output of their own
+                        break;
+                }
+            }
+            writer.flush();
+        } finally {
+            writer.close();
+            closeQuietly(reader);
+        }
+        return xmlDeclaration(payload) + out;
+    }
+
+    private void writeStartElement(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+        String prefix = reader.getPrefix();
+        String namespace = reader.getNamespaceURI();
+        writer.writeStartElement(prefix == null ? "" : prefix, reader.getLocalName(), namespace == null ? "" : namespace);
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String nsPrefix = reader.getNamespacePrefix(i);
+            if (nsPrefix == null || nsPrefix.isEmpty()) {
+                writer.writeDefaultNamespace(reader.getNamespaceURI(i));
+            } else {
+                writer.writeNamespace(nsPrefix, reader.getNamespaceURI(i));
+            }
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attrPrefix = reader.getAttributePrefix(i);
+            String attrNamespace = reader.getAttributeNamespace(i);
+            if (attrNamespace == null || attrNamespace.isEmpty()) {
+                writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            } else {
+                writer.writeAttribute(attrPrefix == null ? "" : attrPrefix, attrNamespace,
+                        reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+    }
+
+    private void newLine(XMLStreamWriter writer, int depth) throws XMLStreamException {
+        writer.writeCharacters("\n");
+        for (int i = 0; i < depth; i++) {
+            writer.writeCharacters(INDENT);
+        }
+    }
+
+    /**
+     * Keep the original XML declaration verbatim (StAX writers cannot reproduce standalone=...)
+     */
+    private String xmlDeclaration(String payload) {
+        String trimmed = payload.stripLeading();
+        if (trimmed.startsWith("<?xml")) {
+            int end = trimmed.indexOf("?>");
+            if (end > 0) {
+                return trimmed.substring(0, end + 2) + "\n";
+            }
+        }
+        return "";
+    }
+
+    private PayloadValidationResult xmlError(XMLStreamException e) {
+        Location location = e.getLocation();
+        String message = e.getMessage();
+        // JDK messages look like "ParseError at [row,col]:[3,7]\nMessage: ..."
+        int index = message == null ? -1 : message.indexOf("Message: ");
+        if (index >= 0) {
+            message = message.substring(index + "Message: ".length());
+        }
+        return PayloadValidationResult.error(XML,
+                location != null ? location.getLineNumber() : null,
+                location != null ? location.getColumnNumber() : null,
+                message);
+    }
+
+    private void closeQuietly(XMLStreamReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            log.debug("Error closing XML reader", e);
+        }
+    }
+
+    // ===== JSON =====
+
+    private PayloadValidationResult validateJson(String payload) {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() == null) {
+                return PayloadValidationResult.error(JSON, 1, 1, "No JSON content");
+            }
+            parser.skipChildren();
+            if (parser.nextToken() != null) {
+                JsonLocation location = parser.getTokenLocation();
+                return PayloadValidationResult.error(JSON, location.getLineNr(), location.getColumnNr(),
+                        "Unexpected content after the root value");
+            }
+            return PayloadValidationResult.ok(JSON);
+        } catch (JsonProcessingException e) {
+            return jsonError(e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read payload", e);
+        }
+    }
+
+    private String reformatJson(String payload, boolean pretty) throws IOException {
+        StringWriter out = new StringWriter(payload.length());
+        try (JsonParser parser = jsonFactory.createParser(payload);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            if (pretty) {
+                generator.useDefaultPrettyPrinter();
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                generator.copyCurrentEvent(parser);
+                if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY || token.isScalarValue()) {
+                    if (parser.getParsingContext().inRoot()) {
+                        break;
+                    }
+                }
+            }
+            if (parser.nextToken() != null) {
+                JsonLocation location = parser.getTokenLocation();
+                throw new InvalidPayloadException(PayloadValidationResult.error(JSON,
+                        location.getLineNr(), location.getColumnNr(), "Unexpected content after the root value"));
+            }
+        }
+        return out.toString();
+    }
+
+    private PayloadValidationResult jsonError(JsonProcessingException e) {
+        JsonLocation location = e.getLocation();
+        return PayloadValidationResult.error(JSON,
+                location != null ? location.getLineNr() : null,
+                location != null ? location.getColumnNr() : null,
+                e.getOriginalMessage());
+    }
+}
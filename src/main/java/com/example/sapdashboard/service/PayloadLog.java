@@ -0,0 +1,464 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.model.PayloadRef;
+import com.example.sapdashboard.repository.EventStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap home for payload bodies (payload, originalPayload, retryHistory), enabled with
+ * dashboard.payload-log.enabled=true. Events then store only a {@link PayloadRef} per body.
+ *
+ * Bodies are appended to fixed-size segment files as [int length][UTF-8 bytes]. Every segment is
+ * memory-mapped, so writes go to the page cache and reads are slices of the mapping, not copies
+ * held on the heap. Only the newest segment is written to; on startup each segment's write position
+ * is recovered by walking its records up to the zero-filled tail.
+ *
+ * Space is reclaimed by compaction: sealed segments whose live bytes fall below the threshold
+ * (after payload purges or payload edits) have their remaining bodies copied to the active segment,
+ * their events re-pointed, and the file deleted one compaction pass later, so reads that already
+ * hold an old ref still find it.
+ */
+@Service
+@ConditionalOnProperty(name = "dashboard.payload-log.enabled", havingValue = "true")
+@Slf4j
+public class PayloadLog {
+
+    private static final String SEGMENT_PREFIX = "payload-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final EventStore eventStore;
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+
+    private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+    // Guarded by this
+    private Segment active;
+
+    // Load-change-save flows hold the read lock, so no stale ref can be saved back while
+    // compaction or purge (write lock) re-point events
+    private final ReentrantReadWriteLock refLock = new ReentrantReadWriteLock();
+    // Guarded by the write lock; deleted on the next compaction pass
+    private final List<Segment> retired = new ArrayList<>();
+    // One compaction at a time, whether scheduled or requested
+    private final Object compactionLock = new Object();
+    private volatile boolean accounted;
+
+    private final AtomicLong appendedBytes = new AtomicLong();
+    private final AtomicLong relocatedBytes = new AtomicLong();
+    private final AtomicLong purgedBytes = new AtomicLong();
+    private final AtomicLong compactedSegments = new AtomicLong();
+
+    public PayloadLog(EventStore eventStore,
+                      @Value("${dashboard.payload-log.dir:${java.io.tmpdir}/sap-dashboard/payload-log}") String directory,
+                      @Value("${dashboard.payload-log.segment-size-mb:64}") int segmentSizeMb,
+                      @Value("${dashboard.payload-log.compaction-threshold:0.5}") double compactionThreshold) {
+        this.eventStore = eventStore;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.compactionThreshold = compactionThreshold;
+        try {
+            Files.createDirectories(this.directory);
+            Map<Integer, Path> existing = new TreeMap<>();
+            try (Stream<Path> files = Files.list(this.directory)) {
+                files.forEach(path -> {
+                    Integer id = segmentId(path);
+                    if (id != null) {
+                        existing.put(id, path);
+                    }
+                });
+            }
+            for (Map.Entry<Integer, Path> entry : existing.entrySet()) {
+                Segment segment = Segment.open(entry.getKey(), entry.getValue(), 0);
+                segments.put(segment.id, segment);
+                active = segment;
+            }
+            if (active == null) {
+                active = newSegment(0, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open payload log in " + directory, e);
+        }
+        log.info("Payload log in {}: {} segments, writing to segment {}", this.directory, segments.size(), active.id);
+    }
+
+    // ===== EVENTS =====
+
+    /**
+     * Move the event's payload bodies into the log before it is saved: each non-empty body becomes a
+     * ref and the text field is cleared. Bodies equal to what the current ref holds keep their ref.
+     */
+    public void offload(IntegrationEvent event) {
+        for (PayloadRef.Field field : PayloadRef.Field.values()) {
+            String text = field.getText(event);
+            if (text == null) {
+                continue;
+            }
+            PayloadRef ref = field.getRef(event);
+            if (text.isEmpty()) {
+                // Too small to be worth a record; the empty text stays in the column
+                if (ref != null) {
+                    release(ref);
+                    field.setRef(event, null);
+                }
+                continue;
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (ref == null || !holds(ref, bytes)) {
+                if (ref != null) {
+                    release(ref);
+                }
+                field.setRef(event, append(ByteBuffer.wrap(bytes)));
+            }
+            field.setText(event, null);
+        }
+    }
+
+    /**
+     * Fill the text fields of a loaded event from its refs
+     */
+    public void hydrate(IntegrationEvent event) {
+        for (PayloadRef.Field field : PayloadRef.Field.values()) {
+            PayloadRef ref = field.getRef(event);
+            if (ref != null && field.getText(event) == null) {
+                field.setText(event, read(ref));
+            }
+        }
+    }
+
+    /**
+     * Run work that loads events, changes them and saves them back, with their refs pinned
+     */
+    public <T> T withPinnedRefs(Supplier<T> work) {
+        refLock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            refLock.readLock().unlock();
+        }
+    }
+
+    // ===== READ / WRITE =====
+
+    /**
+     * Read-only view of the body in the mapped segment; nothing is copied
+     */
+    public ByteBuffer slice(PayloadRef ref) {
+        Segment segment = segments.get(ref.getSegment());
+        if (segment == null) {
+            throw new IllegalStateException("Payload segment " + ref.getSegment() + " no longer exists");
+        }
+        ByteBuffer view = segment.buffer.asReadOnlyBuffer();
+        view.position((int) ref.getOffset()).limit((int) ref.getOffset() + ref.getLength());
+        return view.slice();
+    }
+
+    public String read(PayloadRef ref) {
+        return StandardCharsets.UTF_8.decode(slice(ref)).toString();
+    }
+
+    private synchronized PayloadRef append(ByteBuffer body) {
+        int length = body.remaining();
+        if (active.position + HEADER_BYTES + length > active.capacity) {
+            active.buffer.force();
+            active = newSegment(active.id + 1, HEADER_BYTES + length);
+        }
+        Segment segment = active;
+        int position = segment.position;
+        ByteBuffer target = segment.buffer.duplicate();
+        target.position(position);
+        target.putInt(length);
+        target.put(body);
+        segment.position = position + HEADER_BYTES + length;
+        segment.liveBytes.addAndGet(length);
+        appendedBytes.addAndGet(length);
+        return new PayloadRef(segment.id, position + HEADER_BYTES, length);
+    }
+
+    private void release(PayloadRef ref) {
+        Segment segment = segments.get(ref.getSegment());
+        if (segment != null) {
+            segment.liveBytes.addAndGet(-ref.getLength());
+        }
+    }
+
+    private boolean holds(PayloadRef ref, byte[] bytes) {
+        return ref.getLength() == bytes.length && segments.containsKey(ref.getSegment())
+                && slice(ref).equals(ByteBuffer.wrap(bytes));
+    }
+
+    // ===== COMPACTION AND PURGE =====
+
+    /**
+     * Live bytes per segment are kept in memory; recount them from the stored refs at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void accountLiveBytes() {
+        refLock.writeLock().lock();
+        try {
+            segments.values().forEach(segment -> segment.liveBytes.set(0));
+            for (IntegrationEvent event : eventStore.findAll()) {
+                for (PayloadRef.Field field : PayloadRef.Field.values()) {
+                    PayloadRef ref = field.getRef(event);
+                    Segment segment = ref == null ? null : segments.get(ref.getSegment());
+                    if (segment != null) {
+                        segment.liveBytes.addAndGet(ref.getLength());
+                    }
+                }
+            }
+            accounted = true;
+        } finally {
+            refLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.payload-log.compaction-interval-ms:60000}")
+    public void compact() {
+        if (!accounted) {
+            return;
+        }
+        synchronized (compactionLock) {
+            deleteRetired();
+            int activeId;
+            synchronized (this) {
+                activeId = active.id;
+            }
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment.id == activeId || segment.retired
+                        || segment.liveBytes.get() >= compactionThreshold * segment.position) {
+                    continue;
+                }
+                refLock.writeLock().lock();
+                try {
+                    compact(segment);
+                } finally {
+                    refLock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the bodies still referenced from the segment to the active segment and retire it
+     */
+    private void compact(Segment segment) {
+        long relocated = 0;
+        for (IntegrationEvent event : eventStore.findByPayloadSegment(segment.id)) {
+            for (PayloadRef.Field field : PayloadRef.Field.values()) {
+                PayloadRef ref = field.getRef(event);
+                if (ref == null || ref.getSegment() != segment.id) {
+                    continue;
+                }
+                PayloadRef moved = append(slice(ref));
+                if (eventStore.replacePayloadRef(event.getId(), field, ref, moved)) {
+                    relocated += ref.getLength();
+                } else {
+                    release(moved);
+                }
+            }
+        }
+        segment.retired = true;
+        retired.add(segment);
+        relocatedBytes.addAndGet(relocated);
+        compactedSegments.incrementAndGet();
+        log.info("Compacted payload segment {}: {} of {} bytes still referenced", segment.id, relocated, segment.position);
+    }
+
+    private void deleteRetired() {
+        refLock.writeLock().lock();
+        try {
+            for (Segment segment : retired) {
+                segments.remove(segment.id);
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            }
+            retired.clear();
+        } catch (IOException e) {
+            log.error("Failed to delete compacted payload segment", e);
+        } finally {
+            refLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the payload bodies of events in the given status created before the cutoff.
+     * The events stay; their space is reclaimed by the next compaction.
+     */
+    public Map<String, Object> purge(String status, LocalDateTime createdBefore) {
+        long events = 0;
+        long bytes = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = eventStore.findIdsAfter(status, null, null, null, createdBefore, afterId, PURGE_CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            refLock.writeLock().lock();
+            try {
+                for (IntegrationEvent event : eventStore.findAllById(ids)) {
+                    boolean purged = false;
+                    for (PayloadRef.Field field : PayloadRef.Field.values()) {
+                        PayloadRef ref = field.getRef(event);
+                        if (ref != null && eventStore.replacePayloadRef(event.getId(), field, ref, null)) {
+                            release(ref);
+                            bytes += ref.getLength();
+                            purged = true;
+                        }
+                    }
+                    if (purged) {
+                        events++;
+                    }
+                }
+            } finally {
+                refLock.writeLock().unlock();
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        purgedBytes.addAndGet(bytes);
+        log.info("Purged payloads of {} {} events created before {} ({} bytes)", events, status, createdBefore, bytes);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "success");
+        result.put("events", events);
+        result.put("purgedBytes", bytes);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        long totalBytes = 0;
+        long liveBytes = 0;
+        for (Segment segment : segments.values()) {
+            totalBytes += segment.position;
+            liveBytes += segment.liveBytes.get();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", directory.toString());
+        stats.put("segments", segments.size());
+        synchronized (this) {
+            stats.put("activeSegment", active.id);
+        }
+        stats.put("totalBytes", totalBytes);
+        stats.put("liveBytes", liveBytes);
+        stats.put("appendedBytes", appendedBytes.get());
+        stats.put("relocatedBytes", relocatedBytes.get());
+        stats.put("purgedBytes", purgedBytes.get());
+        stats.put("compactedSegments", compactedSegments.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.close();
+        }
+    }
+
+    private Segment newSegment(int id, int minCapacity) {
+        try {
+            Segment segment = Segment.open(id, directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)),
+                    Math.max(segmentSize, minCapacity));
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create payload segment " + id, e);
+        }
+    }
+
+    private static Integer segmentId(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        final AtomicLong liveBytes = new AtomicLong();
+        // Written under the PayloadLog monitor
+        volatile int position;
+        volatile boolean retired;
+
+        private Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        /**
+         * Map the file; new files are created sparse with the given capacity, existing ones keep their size
+         */
+        static Segment open(int id, Path path, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), capacity);
+            Segment segment = new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.position = segment.recoverPosition();
+            return segment;
+        }
+
+        private int recoverPosition() {
+            int position = 0;
+            while (position + HEADER_BYTES <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > capacity) {
+                    break;
+                }
+                position += HEADER_BYTES + length;
+            }
+            return position;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close payload segment {}", id, e);
+            }
+        }
+    }
+}
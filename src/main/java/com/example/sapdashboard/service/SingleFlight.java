@@ -0,0 +1,163 @@
+package com.example.sapdashboard.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for read computations (recent events, stats, counts, filtered lists).
+ *
+ * Concurrent callers asking for the same key share one execution. A finished result is reused if
+ * nothing was written since it started (store version), or, for callers that accept it, for up to
+ * dashboard.coalesce.stale-ms after it finished. Callers that tag responses with the store version
+ * (ETags) pass allowStale=false, so a body is never older than its tag.
+ *
+ * Results are shared between callers and must not be modified.
+ */
+@Component
+@Slf4j
+public class SingleFlight {
+
+    // Finished flights are dropped once the map grows past this (one key per filter value)
+    private static final int MAX_KEYS = 1024;
+
+    private final StoreVersion storeVersion;
+    private final boolean enabled;
+    private final long staleNanos;
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public SingleFlight(StoreVersion storeVersion,
+                        @Value("${dashboard.coalesce.enabled:true}") boolean enabled,
+                        @Value("${dashboard.coalesce.stale-ms:1000}") long staleMs) {
+        this.storeVersion = storeVersion;
+        this.enabled = enabled;
+        this.staleNanos = staleMs * 1_000_000L;
+    }
+
+    /**
+     * Result of the computation named name (for argument arg, may be null), shared with concurrent
+     * and recent callers of the same name and arg
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String name, Object arg, boolean allowStale, Supplier<V> computation) {
+        Counters stats = counters.computeIfAbsent(name, n -> new Counters());
+        if (!enabled) {
+            stats.executions.increment();
+            return computation.get();
+        }
+        String key = arg == null ? name : name + ":" + arg;
+        long version = storeVersion.current();
+        while (true) {
+            long now = System.nanoTime();
+            Flight flight = flights.get(key);
+            if (flight != null) {
+                if (!flight.result.isDone()) {
+                    if (allowStale || flight.version >= version) {
+                        stats.coalesced.increment();
+                        return (V) join(flight);
+                    }
+                } else if (!flight.result.isCompletedExceptionally()
+                        && (flight.version >= version || (allowStale && now - flight.completedAt < staleNanos))) {
+                    stats.hits.increment();
+                    return (V) flight.result.join();
+                }
+            }
+            Flight mine = new Flight(version);
+            boolean won = flight == null ? flights.putIfAbsent(key, mine) == null : flights.replace(key, flight, mine);
+            if (!won) {
+                continue;
+            }
+            stats.executions.increment();
+            try {
+                V value = computation.get();
+                mine.completedAt = System.nanoTime();
+                mine.result.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                mine.result.completeExceptionally(e);
+                flights.remove(key, mine);
+                throw e;
+            } finally {
+                if (flights.size() > MAX_KEYS) {
+                    evictFinished();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executions, coalesced (joined an in-flight execution) and hits (reused a finished one) per computation
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> byName = new TreeMap<>();
+        long executions = 0;
+        long shared = 0;
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters stats = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("executions", stats.executions.sum());
+            row.put("coalesced", stats.coalesced.sum());
+            row.put("hits", stats.hits.sum());
+            byName.put(entry.getKey(), row);
+            executions += stats.executions.sum();
+            shared += stats.coalesced.sum() + stats.hits.sum();
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", enabled);
+        response.put("staleMs", staleNanos / 1_000_000L);
+        response.put("inFlight", flights.values().stream().filter(flight -> !flight.result.isDone()).count());
+        response.put("executions", executions);
+        response.put("shared", shared);
+        response.put("computations", byName);
+        return response;
+    }
+
+    private static Object join(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void evictFinished() {
+        long now = System.nanoTime();
+        flights.values().removeIf(flight -> flight.result.isDone() && now - flight.completedAt >= staleNanos);
+    }
+
+    private static class Flight {
+        // Store version read before the computation started: its result is at least this new
+        final long version;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Written before result completes, read after isDone()
+        volatile long completedAt;
+
+        Flight(long version) {
+            this.version = version;
+        }
+    }
+
+    private static class Counters {
+        final LongAdder executions = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder hits = new LongAdder();
+    }
+}
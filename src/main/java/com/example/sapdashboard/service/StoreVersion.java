@@ -0,0 +1,24 @@
+package com.example.sapdashboard.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing version of the event store, bumped after every write.
+ * Readers take the version before reading, so a response is never tagged newer than its data.
+ * Seeded from the clock so versions keep increasing across restarts of the in-memory database.
+ */
+@Component
+public class StoreVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.sapdashboard.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, each holding an intrusive linked list of
+ * timers. Scheduling is O(1) and lock-free (timers are staged in a queue); expiry only walks the
+ * buckets of the ticks that elapsed, so cost does not grow with the number of pending timers.
+ * Deadlines further out than one revolution wait for the required number of rounds.
+ *
+ * schedule() may be called from any thread; advance() must be called from a single thread.
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final Timer<T>[] buckets;
+    private final int mask;
+    private final Queue<Timer<T>> staged = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Next tick to process, as an absolute tick number (millis / tickMillis)
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int ticksPerWheel, long startMillis) {
+        if (tickMillis <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("tickMillis and ticksPerWheel must be positive");
+        }
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = (Timer<T>[]) new Timer[Math.max(size, 1)];
+        this.mask = buckets.length - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    void schedule(T item, long deadlineMillis) {
+        staged.add(new Timer<>(item, deadlineMillis));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Number of timers scheduled and not yet expired
+     */
+    int size() {
+        return pending.get();
+    }
+
+    /**
+     * Process every tick up to nowMillis and return the items whose deadline has passed
+     */
+    List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        drainStaged();
+        while (currentTick <= targetTick) {
+            expire((int) (currentTick & mask), expired);
+            currentTick++;
+        }
+        pending.addAndGet(-expired.size());
+        return expired;
+    }
+
+    private void drainStaged() {
+        Timer<T> timer;
+        while ((timer = staged.poll()) != null) {
+            // Round up so a timer never fires before its deadline; overdue ones fire on the next tick processed
+            long tick = Math.max((timer.deadline + tickMillis - 1) / tickMillis, currentTick);
+            timer.rounds = (tick - currentTick) / buckets.length;
+            int index = (int) (tick & mask);
+            timer.next = buckets[index];
+            buckets[index] = timer;
+        }
+    }
+
+    private void expire(int index, List<T> expired) {
+        Timer<T> previous = null;
+        Timer<T> timer = buckets[index];
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            if (timer.rounds <= 0) {
+                expired.add(timer.item);
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+            } else {
+                timer.rounds--;
+                previous = timer;
+            }
+            timer = next;
+        }
+    }
+
+    private static final class Timer<T> {
+        final T item;
+        final long deadline;
+        long rounds;
+        Timer<T> next;
+
+        Timer(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
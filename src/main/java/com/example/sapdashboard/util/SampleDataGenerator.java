@@ -1,7 +1,7 @@
 package com.example.sapdashboard.util;
 
 import com.example.sapdashboard.model.IntegrationEvent;
-import com.example.sapdashboard.repository.IntegrationEventRepository;
+import com.example.sapdashboard.service.EventService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
@@ -13,7 +13,7 @@ import java.util.Random;
 @RequiredArgsConstructor
 public class SampleDataGenerator {
 
-    private final IntegrationEventRepository repository;
+    private final EventService eventService;
     private static final Random random = new Random();
 
     private static final String[] STATUSES = {"SUCCESS", "FAILED", "PENDING"};
@@ -137,7 +137,7 @@ public class SampleDataGenerator {
                 event.setErrorDetails("");
             }
 
-            repository.save(event);
+            eventService.saveEventAndPublishState(event);
             System.out.println("✓ Created: " + event.getOrderId() + " - " + event.getStatus() +
                     (event.getPayload() != null ? " (Payload: " + event.getPayloadFormat() + ")" : ""));
         }
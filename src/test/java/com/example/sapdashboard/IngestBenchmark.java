@@ -0,0 +1,476 @@
+package com.example.sapdashboard;
+
+import com.example.sapdashboard.kafka.EventSerializer;
+import com.example.sapdashboard.kafka.IngestBulkheads;
+import com.example.sapdashboard.kafka.KafkaProducer;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end ingest throughput and latency against an in-process Kafka broker (perf profile).
+ *
+ * Events are offered at a fixed rate through POST /api/events and straight onto
+ * sap-integration-events. In the perf profile the consumer is the single writer, so latency is
+ * publish-to-persist: from the time an event was scheduled to be sent (not when the sender got to
+ * it, so a stalled sender shows up as latency) to the end of its EventService.saveEvent, taken from
+ * the EventSave flight recorder events. A phase is over once the consumer has caught up (lag 0).
+ * Consumer lag, heap and GC are sampled every second; the ingest lanes' stats end the report.
+ *
+ * Writes a JSON report, and the recording next to it, and fails if a configured gate is missed.
+ * Not part of the default build:
+ *   mvn test -Dtest=IngestBenchmark -Dgroups=benchmark -DexcludedTestGroups= \
+ *       -Dperf.rate=500 -Dperf.duration-seconds=60 -Dperf.max-p99-ms=250
+ *
+ *   perf.sources            rest,kafka  where events are offered; the rate applies to each
+ *   perf.rate               200         events per second per source
+ *   perf.warmup-seconds     10          offered first and left out of the results
+ *   perf.duration-seconds   30
+ *   perf.line-items         5           payload size (SalesOrder line items)
+ *   perf.failed-percent     10          share of FAILED events (with errorDetails)
+ *   perf.max-in-flight      256         concurrent REST requests
+ *   perf.drain-timeout-seconds 60       wait for the last events to be persisted
+ *   perf.report             target/perf/ingest-report.json
+ *   perf.min-throughput     (none)      gate: persisted events per second
+ *   perf.max-p99-ms         (none)      gate: p99 publish-to-persist latency
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EmbeddedKafka(partitions = 1)
+@ActiveProfiles("perf")
+@Slf4j
+class IngestBenchmark {
+
+	private static final String SAVE_EVENT = "com.example.sapdashboard.EventSave";
+	private static final String GROUP_ID = "dashboard-group";
+	private static final String[] INTEGRATIONS = {"Order-to-SAP", "Customer-Sync", "Inventory-Update", "Invoice-Processing"};
+
+	private final List<String> sources = Arrays.asList(System.getProperty("perf.sources", "rest,kafka").split(","));
+	private final int rate = Integer.getInteger("perf.rate", 200);
+	private final int warmupSeconds = Integer.getInteger("perf.warmup-seconds", 10);
+	private final int durationSeconds = Integer.getInteger("perf.duration-seconds", 30);
+	private final int lineItems = Integer.getInteger("perf.line-items", 5);
+	private final int failedPercent = Integer.getInteger("perf.failed-percent", 10);
+	private final int maxInFlight = Integer.getInteger("perf.max-in-flight", 256);
+	private final int drainTimeoutSeconds = Integer.getInteger("perf.drain-timeout-seconds", 60);
+	private final Path reportPath = Paths.get(System.getProperty("perf.report", "target/perf/ingest-report.json"));
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private EmbeddedKafkaBroker broker;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private IngestBulkheads bulkheads;
+
+	@Value("${dashboard.store.engine:jpa}")
+	private String storeEngine;
+
+	@Value("${dashboard.payload-log.enabled:false}")
+	private boolean payloadLog;
+
+	// orderId -> scheduled send time / end of its save
+	private final ConcurrentMap<String, Instant> sentAt = new ConcurrentHashMap<>();
+	private final Map<String, Instant> persistedAt = new HashMap<>();
+	private final AtomicLong sendErrors = new AtomicLong();
+
+	@Test
+	void ingest() throws Exception {
+		HttpClient http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(8)).build();
+		Producer<String, Object> producer = producer();
+		Sampler sampler = new Sampler();
+		ScheduledExecutorService sampling = Executors.newSingleThreadScheduledExecutor();
+
+		try (AdminClient admin = AdminClient.create(Map.of("bootstrap.servers", broker.getBrokersAsString()));
+			 Recording saves = new Recording()) {
+			run("W", warmupSeconds, http, producer, admin);
+			sentAt.clear();
+			sendErrors.set(0);
+
+			saves.enable(SAVE_EVENT);
+			saves.start();
+			sampler.start();
+			sampling.scheduleAtFixedRate(() -> sampler.sample(admin), 0, 1, TimeUnit.SECONDS);
+			Instant start = Instant.now();
+			run("M", durationSeconds, http, producer, admin);
+			sampling.shutdown();
+			sampling.awaitTermination(5, TimeUnit.SECONDS);
+			sampler.sample(admin);
+			saves.stop();
+
+			Files.createDirectories(reportPath.toAbsolutePath().getParent());
+			Path recording = reportPath.resolveSibling(reportPath.getFileName().toString().replaceAll("\\.json$", "") + ".jfr");
+			saves.dump(recording);
+			for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+				String orderId = event.getString("orderId");
+				if (orderId != null && orderId.startsWith("PERF-M-")) {
+					persistedAt.putIfAbsent(orderId, event.getEndTime());
+				}
+			}
+
+			Map<String, Object> report = report(start, sampler);
+			objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+			log.info("Ingest benchmark report:\n{}", objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+			log.info("Report written to {}", reportPath.toAbsolutePath());
+
+			gate(report);
+		} finally {
+			producer.close();
+		}
+	}
+
+	// ===== LOAD =====
+
+	/**
+	 * Offer events from every source for seconds, then wait until they are all persisted
+	 */
+	private void run(String phase, int seconds, HttpClient http, Producer<String, Object> producer,
+					 AdminClient admin) throws InterruptedException {
+		List<Thread> senders = new ArrayList<>();
+		Instant start = Instant.now().plusMillis(100);
+		for (String source : sources) {
+			String name = source.trim();
+			Thread sender = new Thread(() -> offer(name, phase, seconds, start, http, producer), "perf-" + name);
+			sender.start();
+			senders.add(sender);
+		}
+		for (Thread sender : senders) {
+			sender.join();
+		}
+		producer.flush();
+
+		// Every source goes through the topic, so lag 0 means everything sent was consumed and saved
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+		while (consumerLag(admin) != 0 && System.nanoTime() < deadline) {
+			Thread.sleep(100);
+		}
+	}
+
+	private void offer(String source, String phase, int seconds, Instant start, HttpClient http,
+					   Producer<String, Object> producer) {
+		Semaphore inFlight = new Semaphore(maxInFlight);
+		long intervalNanos = 1_000_000_000L / rate;
+		long count = (long) rate * seconds;
+		long startNanos = System.nanoTime() + Duration.between(Instant.now(), start).toNanos();
+		for (long i = 0; i < count; i++) {
+			long due = startNanos + i * intervalNanos;
+			long wait;
+			while ((wait = due - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			IntegrationEvent event = event(String.format("PERF-%s-%s-%07d", phase, source.toUpperCase(), i), i);
+			sentAt.put(event.getOrderId(), start.plusNanos(i * intervalNanos));
+			if ("rest".equals(source)) {
+				post(http, inFlight, event);
+			} else {
+				producer.send(new ProducerRecord<>(KafkaProducer.EVENTS_TOPIC, event.getOrderId(), event),
+						(metadata, e) -> {
+							if (e != null) {
+								sendErrors.incrementAndGet();
+							}
+						});
+			}
+		}
+		inFlight.acquireUninterruptibly(maxInFlight);
+	}
+
+	private void post(HttpClient http, Semaphore inFlight, IntegrationEvent event) {
+		byte[] body;
+		try {
+			body = objectMapper.writeValueAsBytes(event);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(body))
+				.build();
+		inFlight.acquireUninterruptibly();
+		http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+			if (e != null || response.statusCode() >= 300) {
+				sendErrors.incrementAndGet();
+			}
+			inFlight.release();
+		});
+	}
+
+	private Producer<String, Object> producer() {
+		Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+		props.put(ProducerConfig.ACKS_CONFIG, "all");
+		props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+		return new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new EventSerializer(true))
+				.createProducer();
+	}
+
+	private IntegrationEvent event(String orderId, long i) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setOrderId(orderId);
+		event.setIntegrationName(INTEGRATIONS[(int) (i % INTEGRATIONS.length)]);
+		event.setTimestamp(LocalDateTime.now());
+		if (i % 100 < failedPercent) {
+			event.setStatus("FAILED");
+			event.setMessage("Order rejected by SAP");
+			event.setErrorDetails("Connection timeout to SAP after " + (30000 + i % 7) + " ms");
+		} else {
+			event.setStatus("SUCCESS");
+			event.setMessage("Order placed successfully");
+			event.setErrorDetails("");
+		}
+		event.setPayload(payload(orderId, i));
+		event.setPayloadFormat("XML");
+		return event;
+	}
+
+	private String payload(String orderId, long i) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<SalesOrder>\n")
+				.append("    <OrderID>").append(orderId).append("</OrderID>\n")
+				.append("    <CustomerID>CUST-").append(i % 100).append("</CustomerID>\n")
+				.append("    <TotalAmount>").append(1000 + i % 5000).append(".00</TotalAmount>\n    <LineItems>\n");
+		for (int item = 1; item <= lineItems; item++) {
+			xml.append("        <LineItem>\n")
+					.append("            <ItemNumber>").append(item).append("</ItemNumber>\n")
+					.append("            <Material>MAT-00").append(item).append("</Material>\n")
+					.append("            <Quantity>").append(item * 3).append("</Quantity>\n")
+					.append("        </LineItem>\n");
+		}
+		return xml.append("    </LineItems>\n</SalesOrder>").toString();
+	}
+
+	// ===== REPORT =====
+
+	private Map<String, Object> report(Instant start, Sampler sampler) {
+		Map<String, List<Long>> latencies = new HashMap<>();
+		List<Long> all = new ArrayList<>();
+		Instant lastPersist = start;
+		for (Map.Entry<String, Instant> entry : persistedAt.entrySet()) {
+			Instant sent = sentAt.get(entry.getKey());
+			if (sent == null) {
+				continue;
+			}
+			// Both clocks are wall clock; JFR's can be a little behind for very fast saves
+			long micros = Math.max(0, Duration.between(sent, entry.getValue()).toNanos() / 1000);
+			all.add(micros);
+			latencies.computeIfAbsent(entry.getKey().split("-")[2].toLowerCase(), s -> new ArrayList<>()).add(micros);
+			if (entry.getValue().isAfter(lastPersist)) {
+				lastPersist = entry.getValue();
+			}
+		}
+		double elapsedSeconds = Math.max(1, Duration.between(start, lastPersist).toMillis()) / 1000.0;
+
+		Map<String, Object> config = new LinkedHashMap<>();
+		config.put("sources", sources);
+		config.put("ratePerSource", rate);
+		config.put("warmupSeconds", warmupSeconds);
+		config.put("durationSeconds", durationSeconds);
+		config.put("lineItems", lineItems);
+		config.put("failedPercent", failedPercent);
+		config.put("storeEngine", storeEngine);
+		config.put("payloadLog", payloadLog);
+
+		Map<String, Object> throughput = new LinkedHashMap<>();
+		throughput.put("offeredPerSecond", rate * sources.size());
+		throughput.put("persistedPerSecond", Math.round(persistedAt.size() / elapsedSeconds));
+
+		Map<String, Object> latency = percentiles(all);
+		latencies.forEach((source, values) -> latency.put(source, percentiles(values)));
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("startedAt", start.toString());
+		report.put("java", System.getProperty("java.version"));
+		report.put("config", config);
+		report.put("sent", sentAt.size());
+		report.put("sendErrors", sendErrors.get());
+		report.put("persisted", persistedAt.size());
+		report.put("missing", Math.max(0, sentAt.size() - sendErrors.get() - persistedAt.size()));
+		report.put("elapsedSeconds", elapsedSeconds);
+		report.put("throughput", throughput);
+		report.put("latencyMs", latency);
+		report.put("consumerLag", sampler.lag());
+		report.put("heap", sampler.heap());
+		report.put("gc", sampler.gc());
+		report.put("bulkheads", bulkheads.getStats());
+		return report;
+	}
+
+	private static Map<String, Object> percentiles(List<Long> micros) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("count", micros.size());
+		if (micros.isEmpty()) {
+			return result;
+		}
+		long[] sorted = micros.stream().mapToLong(Long::longValue).sorted().toArray();
+		result.put("mean", millis((long) Arrays.stream(sorted).average().orElse(0)));
+		result.put("p50", millis(sorted[index(sorted, 0.50)]));
+		result.put("p90", millis(sorted[index(sorted, 0.90)]));
+		result.put("p99", millis(sorted[index(sorted, 0.99)]));
+		result.put("p999", millis(sorted[index(sorted, 0.999)]));
+		result.put("max", millis(sorted[sorted.length - 1]));
+		return result;
+	}
+
+	private static int index(long[] sorted, double quantile) {
+		return Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+	}
+
+	private static double millis(long micros) {
+		return Math.round(micros / 10.0) / 100.0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void gate(Map<String, Object> report) {
+		assertThat(report.get("sendErrors")).as("send errors").isEqualTo(0L);
+		assertThat(report.get("missing")).as("events never persisted").isEqualTo(0L);
+		String minThroughput = System.getProperty("perf.min-throughput");
+		if (minThroughput != null) {
+			assertThat((Long) ((Map<String, Object>) report.get("throughput")).get("persistedPerSecond"))
+					.as("persisted events per second").isGreaterThanOrEqualTo(Long.parseLong(minThroughput));
+		}
+		String maxP99 = System.getProperty("perf.max-p99-ms");
+		if (maxP99 != null) {
+			assertThat((Double) ((Map<String, Object>) report.get("latencyMs")).get("p99"))
+					.as("p99 publish-to-persist ms").isLessThanOrEqualTo(Double.parseDouble(maxP99));
+		}
+	}
+
+	/**
+	 * Records on the events topic not yet committed by the dashboard's consumer group, -1 if unknown
+	 */
+	private static long consumerLag(AdminClient admin) {
+		try {
+			Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(GROUP_ID)
+					.partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+			Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+			admin.describeTopics(List.of(KafkaProducer.EVENTS_TOPIC)).allTopicNames().get(5, TimeUnit.SECONDS)
+					.get(KafkaProducer.EVENTS_TOPIC).partitions()
+					.forEach(p -> latest.put(new TopicPartition(KafkaProducer.EVENTS_TOPIC, p.partition()), OffsetSpec.latest()));
+			long lag = 0;
+			for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end
+					: admin.listOffsets(latest).all().get(5, TimeUnit.SECONDS).entrySet()) {
+				OffsetAndMetadata position = committed.get(end.getKey());
+				lag += end.getValue().offset() - (position == null ? 0 : position.offset());
+			}
+			return lag;
+		} catch (Exception e) {
+			log.warn("Lag sample failed", e);
+			return -1;
+		}
+	}
+
+	/**
+	 * Consumer lag on the events topic, heap and GC, sampled during the measured phase
+	 */
+	private static class Sampler {
+		private final List<Long> lags = new ArrayList<>();
+		private long maxHeapUsed;
+		private long lastHeapUsed;
+		private final Map<String, long[]> gcAtStart = new LinkedHashMap<>();
+
+		void start() {
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				gcAtStart.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+			}
+		}
+
+		synchronized void sample(AdminClient admin) {
+			lastHeapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+			maxHeapUsed = Math.max(maxHeapUsed, lastHeapUsed);
+			long lag = consumerLag(admin);
+			if (lag >= 0) {
+				lags.add(lag);
+			}
+		}
+
+		synchronized Map<String, Object> lag() {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("samples", lags.size());
+			result.put("max", lags.stream().mapToLong(Long::longValue).max().orElse(0));
+			result.put("mean", Math.round(lags.stream().mapToLong(Long::longValue).average().orElse(0)));
+			result.put("final", lags.isEmpty() ? 0 : lags.get(lags.size() - 1));
+			return result;
+		}
+
+		synchronized Map<String, Object> heap() {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("maxUsedMb", maxHeapUsed >> 20);
+			result.put("finalUsedMb", lastHeapUsed >> 20);
+			result.put("maxMb", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax() >> 20);
+			return result;
+		}
+
+		Map<String, Object> gc() {
+			Map<String, Object> collectors = new LinkedHashMap<>();
+			long count = 0;
+			long time = 0;
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				long[] before = gcAtStart.getOrDefault(gc.getName(), new long[2]);
+				Map<String, Object> row = new LinkedHashMap<>();
+				row.put("collections", gc.getCollectionCount() - before[0]);
+				row.put("timeMs", gc.getCollectionTime() - before[1]);
+				collectors.put(gc.getName(), row);
+				count += gc.getCollectionCount() - before[0];
+				time += gc.getCollectionTime() - before[1];
+			}
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("collections", count);
+			result.put("timeMs", time);
+			result.put("collectors", collectors);
+			return result;
+		}
+	}
+}
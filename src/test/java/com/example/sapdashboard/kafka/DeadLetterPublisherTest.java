@@ -0,0 +1,91 @@
+package com.example.sapdashboard.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeadLetterPublisherTest {
+
+	private static final byte[] GARBAGE = {(byte) 0xE5, 0x01, 0x7F};
+
+	@SuppressWarnings("unchecked")
+	private final KafkaTemplate<String, byte[]> template = mock(KafkaTemplate.class);
+
+	@Test
+	void returnsOnceTheSendIsAckedWithOriginalBytesAndErrorHeaders() {
+		when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+		DeadLetterPublisher publisher = new DeadLetterPublisher(template, 5000);
+
+		publisher.accept(poisonRecord(), new DeserializationException("bad magic", GARBAGE, false, new IllegalStateException()));
+
+		ProducerRecord<String, byte[]> deadLetter = sent();
+		assertThat(deadLetter.topic()).isEqualTo(KafkaProducer.DLT_TOPIC);
+		assertThat(deadLetter.key()).isEqualTo("PO-1");
+		assertThat(deadLetter.value()).isEqualTo(GARBAGE);
+		assertThat(header(deadLetter, KafkaHeaders.DLT_ORIGINAL_TOPIC)).isEqualTo(KafkaProducer.EVENTS_TOPIC);
+		assertThat(header(deadLetter, KafkaHeaders.DLT_EXCEPTION_MESSAGE)).isEqualTo("bad magic");
+		assertThat(header(deadLetter, KafkaProducer.SOURCE_HEADER)).isEqualTo("somewhere");
+		assertThat(deadLetter.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNull();
+		verify(template, never()).flush();
+		assertThat(publisher.getStats()).containsEntry("published", 1L);
+	}
+
+	@Test
+	void throwsWhenTheSendFails() {
+		when(template.send(any(ProducerRecord.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+		DeadLetterPublisher publisher = new DeadLetterPublisher(template, 5000);
+
+		assertThatThrownBy(() -> publisher.accept(poisonRecord(), new IllegalArgumentException("invalid")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasRootCauseMessage("broker down");
+		assertThat(publisher.getStats()).containsEntry("published", 0L).containsEntry("failed", 1L);
+	}
+
+	@Test
+	void throwsWhenTheBrokerDoesNotAckInTime() {
+		when(template.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+		DeadLetterPublisher publisher = new DeadLetterPublisher(template, 50);
+
+		assertThatThrownBy(() -> publisher.accept(poisonRecord(), new IllegalArgumentException("invalid")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasCauseInstanceOf(TimeoutException.class);
+		assertThat(publisher.getStats()).containsEntry("failed", 1L);
+	}
+
+	private static ConsumerRecord<String, Object> poisonRecord() {
+		ConsumerRecord<String, Object> record = new ConsumerRecord<>(KafkaProducer.EVENTS_TOPIC, 0, 42L, "PO-1", null);
+		record.headers().add(KafkaProducer.SOURCE_HEADER, "somewhere".getBytes(StandardCharsets.UTF_8));
+		record.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[]{1, 2, 3});
+		return record;
+	}
+
+	@SuppressWarnings("unchecked")
+	private ProducerRecord<String, byte[]> sent() {
+		ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+		verify(template).send(captor.capture());
+		return captor.getValue();
+	}
+
+	private static String header(ProducerRecord<String, byte[]> record, String key) {
+		return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+	}
+}
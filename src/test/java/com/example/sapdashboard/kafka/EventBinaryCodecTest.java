@@ -0,0 +1,82 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.dto.RetryEventMessage;
+import com.example.sapdashboard.model.IntegrationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventBinaryCodecTest {
+
+	@Test
+	void roundTripsIntegrationEvent() {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setId(42L);
+		event.setOrderId("PO-00042");
+		event.setStatus("FAILED");
+		event.setMessage("Order placed successfully");
+		event.setPayload("<SalesOrder>" + "<LineItem/>".repeat(100) + "</SalesOrder>");
+		event.setOriginalPayload(event.getPayload());
+		event.setPayloadFormat("XML");
+		event.setRetryCount(2);
+		event.setErrorDetails("Connection timeout to SAP");
+		event.setIntegrationName("Custom-Flow");
+		event.setCreatedAt(LocalDateTime.of(2025, 12, 4, 10, 15, 30, 123_000_000));
+		event.setUpdatedAt(LocalDateTime.of(2025, 12, 4, 10, 16, 0));
+
+		IntegrationEvent decoded = (IntegrationEvent) EventBinaryCodec.decode(EventBinaryCodec.encode(event));
+
+		assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+	}
+
+	@Test
+	void roundTripsRetryMessageWithNulls() {
+		RetryEventMessage message = new RetryEventMessage();
+		message.setOrderId("PO-00007");
+		message.setOriginalStatus("FAILED");
+		message.setUpdatedPayload("{\"orderId\":\"PO-00007\"}");
+		message.setOriginalPayload("{\"orderId\":\"PO-7\"}");
+		message.setRetryAttempt(1);
+		message.setRetryTimestamp(LocalDateTime.of(2025, 12, 4, 11, 0));
+		message.setPayloadFormat("JSON");
+
+		RetryEventMessage decoded = (RetryEventMessage) EventBinaryCodec.decode(EventBinaryCodec.encode(message));
+
+		assertThat(decoded).isEqualTo(message);
+	}
+
+	@Test
+	void rejectsUnknownSchemaVersion() {
+		byte[] data = EventBinaryCodec.encode(new RetryEventMessage());
+		data[1] = 99;
+
+		assertThatThrownBy(() -> EventBinaryCodec.decode(data))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("version");
+	}
+
+	@Test
+	void rejectsLengthBeyondTheRecordBeforeAllocating() {
+		// orderId declares ~2 GB with nothing after it
+		byte[] data = {EventBinaryCodec.MAGIC, EventBinaryCodec.VERSION, EventBinaryCodec.TYPE_RETRY_MESSAGE,
+				(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+		assertThatThrownBy(() -> EventBinaryCodec.decode(data))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("exceeds");
+	}
+
+	@Test
+	void rejectsCompressedPayloadAboveTheLimit() {
+		// null orderId, null status, then a deflated payload claiming 1 GiB inflated
+		byte[] data = {EventBinaryCodec.MAGIC, EventBinaryCodec.VERSION, EventBinaryCodec.TYPE_RETRY_MESSAGE,
+				0, 0, 2, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x04, 0};
+
+		assertThatThrownBy(() -> EventBinaryCodec.decode(data, 1024))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("limit");
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size and CPU comparison of the binary codec against the JSON serializer it replaces.
+ * Not part of the default build; run with:
+ *   mvn test -Dtest=EventCodecBenchmark -Dgroups=benchmark -DexcludedTestGroups=
+ */
+@Tag("benchmark")
+class EventCodecBenchmark {
+
+	private static final int EVENTS = 2_000;
+	private static final int ROUNDS = 50;
+
+	@Test
+	void compareWithJson() {
+		List<IntegrationEvent> events = sampleEvents();
+		EventSerializer json = new EventSerializer(false);
+		EventSerializer binary = new EventSerializer(true);
+		EventDeserializer deserializer = new EventDeserializer();
+		deserializer.configure(Map.of("spring.json.trusted.packages", "*"), false);
+
+		report("json", events, json, deserializer);
+		report("binary", events, binary, deserializer);
+	}
+
+	private void report(String name, List<IntegrationEvent> events, EventSerializer serializer,
+						EventDeserializer deserializer) {
+		List<RecordHeaders> headers = new ArrayList<>();
+		List<byte[]> encoded = new ArrayList<>();
+		long bytes = 0;
+		for (IntegrationEvent event : events) {
+			RecordHeaders h = new RecordHeaders();
+			byte[] data = serializer.serialize("bench", h, event);
+			headers.add(h);
+			encoded.add(data);
+			bytes += data.length;
+		}
+
+		long encodeNanos = 0;
+		long decodeNanos = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (IntegrationEvent event : events) {
+				serializer.serialize("bench", new RecordHeaders(), event);
+			}
+			long middle = System.nanoTime();
+			for (int i = 0; i < encoded.size(); i++) {
+				// JsonDeserializer strips its type headers, so every decode gets its own copy
+				deserializer.deserialize("bench", new RecordHeaders(headers.get(i).toArray()), encoded.get(i));
+			}
+			long end = System.nanoTime();
+			// First half of the rounds is warm-up
+			if (round >= ROUNDS / 2) {
+				encodeNanos += middle - start;
+				decodeNanos += end - middle;
+			}
+		}
+		long measured = (long) EVENTS * (ROUNDS - ROUNDS / 2);
+		System.out.printf("%-6s avg %6d bytes/record, encode %6d ns/record, decode %6d ns/record%n",
+				name, bytes / EVENTS, encodeNanos / measured, decodeNanos / measured);
+	}
+
+	private List<IntegrationEvent> sampleEvents() {
+		List<IntegrationEvent> events = new ArrayList<>();
+		String[] statuses = {"SUCCESS", "FAILED", "PENDING"};
+		for (int i = 0; i < EVENTS; i++) {
+			IntegrationEvent event = new IntegrationEvent();
+			event.setId((long) i);
+			event.setOrderId(String.format("PO-%05d", i));
+			event.setStatus(statuses[i % 3]);
+			event.setIntegrationName("Order-to-SAP");
+			event.setMessage("Order placed successfully");
+			event.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+			event.setUpdatedAt(event.getCreatedAt());
+			if (i % 3 != 0) {
+				event.setPayload(samplePayload(i));
+				event.setOriginalPayload(event.getPayload());
+				event.setPayloadFormat("XML");
+			}
+			events.add(event);
+		}
+		return events;
+	}
+
+	private String samplePayload(int i) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<SalesOrder>\n")
+				.append("    <OrderID>PO-").append(i).append("</OrderID>\n")
+				.append("    <CustomerID>CUST-").append(i % 100).append("</CustomerID>\n    <LineItems>\n");
+		for (int item = 1; item <= 5; item++) {
+			xml.append("        <LineItem>\n")
+					.append("            <ItemNumber>").append(item).append("</ItemNumber>\n")
+					.append("            <Material>MAT-00").append(item).append("</Material>\n")
+					.append("            <Quantity>").append(item * 3).append("</Quantity>\n")
+					.append("        </LineItem>\n");
+		}
+		return xml.append("    </LineItems>\n</SalesOrder>").toString();
+	}
+}
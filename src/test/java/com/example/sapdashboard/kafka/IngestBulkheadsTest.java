@@ -0,0 +1,277 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.jfr.ConsumeJfrEvent;
+import com.example.sapdashboard.model.IntegrationEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestBulkheadsTest {
+
+	private final List<IngestBulkheads> started = new ArrayList<>();
+
+	@AfterEach
+	void stop() {
+		started.forEach(IngestBulkheads::stop);
+	}
+
+	@Test
+	void gateServesAnIdleClientBeforeAnotherClientsBacklog() throws Exception {
+		WeightedFairGate gate = new WeightedFairGate(1);
+		gate.acquire("holder", 1, 1);
+		List<String> granted = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = new ArrayList<>();
+		for (String name : new String[]{"noisy-1", "noisy-2", "noisy-3", "quiet-1"}) {
+			Thread thread = new Thread(() -> {
+				try {
+					gate.acquire(name.substring(0, name.indexOf('-')), 1, 10);
+					granted.add(name);
+					gate.release();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			thread.start();
+			threads.add(thread);
+			// Queue the waiters in this order
+			while (gate.getWaiting() < threads.size()) {
+				Thread.sleep(5);
+			}
+		}
+		gate.release();
+		for (Thread thread : threads) {
+			thread.join(5000);
+		}
+
+		assertThat(granted).containsExactly("noisy-1", "quiet-1", "noisy-2", "noisy-3");
+		assertThat(gate.getInUse()).isZero();
+	}
+
+	@Test
+	void savesAndAcknowledgesEventsPerIntegration() throws Exception {
+		Map<String, List<String>> saved = new ConcurrentHashMap<>();
+		IngestBulkheads bulkheads = bulkheads(events -> events.forEach(event -> saved.computeIfAbsent(event.getIntegrationName(),
+				name -> Collections.synchronizedList(new ArrayList<>())).add(event.getOrderId())), new AtomicInteger());
+		CountDownLatch acked = new CountDownLatch(1);
+		for (int i = 0; i < 3; i++) {
+			bulkheads.dispatch(event("PO-" + i, "Order-to-SAP"), record(i), () -> { }, new ConsumeJfrEvent());
+			bulkheads.dispatch(event("CU-" + i, i == 2 ? null : "Customer-Sync"), record(i + 3),
+					i == 2 ? acked::countDown : () -> { }, new ConsumeJfrEvent());
+		}
+
+		assertThat(acked.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(saved.get("Order-to-SAP")).containsExactly("PO-0", "PO-1", "PO-2");
+		assertThat(saved.get("Customer-Sync")).containsExactly("CU-0", "CU-1");
+		@SuppressWarnings("unchecked")
+		Map<String, Map<String, Object>> lanes = (Map<String, Map<String, Object>>) bulkheads.getStats().get("lanes");
+		assertThat(lanes).containsOnlyKeys("Order-to-SAP", "Customer-Sync", IngestBulkheads.OTHER);
+		assertThat(lanes.get("Order-to-SAP")).containsEntry("saved", 3L).containsEntry("depth", 0);
+		assertThat(lanes.get("Order-to-SAP")).containsEntry("weight", 3.0);
+		assertThat(bulkheads.getStats()).containsEntry("unacknowledgedRecords", 0L);
+	}
+
+	@Test
+	void retriesInPlaceThenDeadLettersAndAcknowledges() throws Exception {
+		AtomicInteger deadLettered = new AtomicInteger();
+		AtomicInteger attempts = new AtomicInteger();
+		IngestBulkheads bulkheads = bulkheads(events -> {
+			for (IntegrationEvent event : events) {
+				if (event.getOrderId().equals("PO-BAD")) {
+					// A failed turn is saved again one event at a time; count those attempts
+					if (events.size() == 1) {
+						attempts.incrementAndGet();
+					}
+					throw new IllegalStateException("database unavailable");
+				}
+				if (event.getOrderId().equals("PO-INVALID")) {
+					throw new IllegalArgumentException("invalid event");
+				}
+			}
+		}, deadLettered);
+		CountDownLatch acked = new CountDownLatch(1);
+		bulkheads.dispatch(event("PO-BAD", "Order-to-SAP"), record(0), () -> { }, new ConsumeJfrEvent());
+		bulkheads.dispatch(event("PO-INVALID", "Order-to-SAP"), record(1), () -> { }, new ConsumeJfrEvent());
+		bulkheads.dispatch(event("PO-OK", "Order-to-SAP"), record(2), acked::countDown, new ConsumeJfrEvent());
+
+		assertThat(acked.await(5, TimeUnit.SECONDS)).isTrue();
+		// One attempt plus two retries; invalid events are not retried
+		assertThat(attempts.get()).isEqualTo(3);
+		assertThat(deadLettered.get()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectedAckDoesNotSaveAgain() throws Exception {
+		AtomicInteger saves = new AtomicInteger();
+		AtomicInteger deadLettered = new AtomicInteger();
+		IngestBulkheads bulkheads = bulkheads(events -> saves.addAndGet(events.size()), deadLettered);
+		CountDownLatch rejected = new CountDownLatch(1);
+		CountDownLatch acked = new CountDownLatch(1);
+		bulkheads.dispatch(event("PO-REVOKED", "Order-to-SAP"), record(0), () -> {
+			rejected.countDown();
+			throw new IllegalStateException("Unexpected ack for partition no longer assigned");
+		}, new ConsumeJfrEvent());
+		assertThat(rejected.await(5, TimeUnit.SECONDS)).isTrue();
+		bulkheads.dispatch(event("PO-OK", "Order-to-SAP"), record(1), acked::countDown, new ConsumeJfrEvent());
+
+		assertThat(acked.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(saves.get()).isEqualTo(2);
+		assertThat(deadLettered.get()).isZero();
+		@SuppressWarnings("unchecked")
+		Map<String, Map<String, Object>> lanes = (Map<String, Map<String, Object>>) bulkheads.getStats().get("lanes");
+		assertThat(lanes.get("Order-to-SAP")).containsEntry("saved", 2L).containsEntry("ackFailed", 1L);
+	}
+
+	@Test
+	void slowLaneHoldsBackTheCommitButNotTheOtherLanes() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch quietSaved = new CountDownLatch(2);
+		IngestBulkheads bulkheads = bulkheads(events -> {
+			for (IntegrationEvent event : events) {
+				if ("Bulk-Replay".equals(event.getIntegrationName())) {
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				} else {
+					quietSaved.countDown();
+				}
+			}
+		}, new AtomicInteger());
+		List<Long> acked = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch lastAcked = new CountDownLatch(1);
+		bulkheads.dispatch(event("BR-0", "Bulk-Replay"), record(0), () -> acked.add(0L), new ConsumeJfrEvent());
+		bulkheads.dispatch(event("PO-1", "Order-to-SAP"), record(1), () -> acked.add(1L), new ConsumeJfrEvent());
+		bulkheads.dispatch(event("PO-2", "Order-to-SAP"), record(2), () -> {
+			acked.add(2L);
+			lastAcked.countDown();
+		}, new ConsumeJfrEvent());
+
+		// The quiet lane saves while the noisy one is stuck, but nothing past offset 0 is committed
+		assertThat(quietSaved.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(acked).isEmpty();
+		assertThat(bulkheads.getStats()).containsEntry("unacknowledgedRecords", 3L);
+
+		release.countDown();
+		assertThat(lastAcked.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(acked).containsExactly(2L);
+	}
+
+	@Test
+	void savesATurnWithOneBatchedCall() throws Exception {
+		CountDownLatch firstSave = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> turnSizes = Collections.synchronizedList(new ArrayList<>());
+		IngestBulkheads bulkheads = bulkheads(events -> {
+			turnSizes.add(events.size());
+			firstSave.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, new AtomicInteger());
+		CountDownLatch acked = new CountDownLatch(1);
+		bulkheads.dispatch(event("PO-0", "Order-to-SAP"), record(0), () -> { }, new ConsumeJfrEvent());
+		assertThat(firstSave.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int i = 1; i <= 5; i++) {
+			bulkheads.dispatch(event("PO-" + i, "Order-to-SAP"), record(i), i == 5 ? acked::countDown : () -> { },
+					new ConsumeJfrEvent());
+		}
+		release.countDown();
+
+		assertThat(acked.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(turnSizes).containsExactly(1, 5);
+		@SuppressWarnings("unchecked")
+		Map<String, Map<String, Object>> lanes = (Map<String, Map<String, Object>>) bulkheads.getStats().get("lanes");
+		assertThat(lanes.get("Order-to-SAP")).containsEntry("saved", 6L).containsEntry("turns", 2L);
+	}
+
+	@Test
+	void listenerAcknowledgmentWaitsForEarlierRecordsInTheLanes() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		IngestBulkheads bulkheads = bulkheads(events -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, new AtomicInteger());
+		List<Long> acked = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch lastAcked = new CountDownLatch(1);
+		bulkheads.dispatch(event("PO-0", "Order-to-SAP"), record(0), () -> acked.add(0L), new ConsumeJfrEvent());
+		// A tombstone behind it
+		bulkheads.acknowledgeInOrder(record(1), () -> {
+			acked.add(1L);
+			lastAcked.countDown();
+		});
+		assertThat(acked).isEmpty();
+
+		release.countDown();
+		assertThat(lastAcked.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(acked).containsExactly(1L);
+	}
+
+	@Test
+	void revokedPartitionIsNotAcknowledged() throws Exception {
+		CountDownLatch saving = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch saved = new CountDownLatch(1);
+		IngestBulkheads bulkheads = bulkheads(events -> {
+			saving.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			saved.countDown();
+		}, new AtomicInteger());
+		AtomicInteger acks = new AtomicInteger();
+		bulkheads.dispatch(event("PO-0", "Order-to-SAP"), record(0), acks::incrementAndGet, new ConsumeJfrEvent());
+		assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+
+		bulkheads.onPartitionsRevoked(List.of(new TopicPartition(KafkaProducer.EVENTS_TOPIC, 0)));
+		release.countDown();
+		assertThat(saved.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(100);
+		assertThat(acks.get()).isZero();
+		assertThat(bulkheads.getStats()).containsEntry("unacknowledgedRecords", 0L);
+	}
+
+	private IngestBulkheads bulkheads(Consumer<List<IntegrationEvent>> save, AtomicInteger deadLettered) {
+		IngestBulkheads.Settings settings = new IngestBulkheads.Settings();
+		settings.setDbPermits(2);
+		IngestBulkheads.LaneSettings orders = new IngestBulkheads.LaneSettings();
+		orders.setWeight(3.0);
+		settings.getLanes().put("Order-to-SAP", orders);
+		IngestBulkheads bulkheads = new IngestBulkheads(settings, save,
+				(record, e) -> deadLettered.incrementAndGet(), 2, 1);
+		started.add(bulkheads);
+		return bulkheads;
+	}
+
+	private static IntegrationEvent event(String orderId, String integrationName) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setOrderId(orderId);
+		event.setStatus("SUCCESS");
+		event.setIntegrationName(integrationName);
+		return event;
+	}
+
+	private static ConsumerRecord<String, byte[]> record(long offset) {
+		return new ConsumerRecord<>(KafkaProducer.EVENTS_TOPIC, 0, offset, "key", new byte[0]);
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.sapdashboard.kafka;
+
+import com.example.sapdashboard.dto.RetryResultMessage;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryResultConsumerTest {
+
+	private static final byte[] RESULT = "{\"orderId\":\"PO-1\",\"retryAttempt\":2,\"status\":\"FAILED\",\"errorDetails\":\"Network error\"}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void readsHeaderlessJsonAsRetryResult() {
+		Object value = deserializer().deserialize(KafkaProducer.RETRY_RESULT_TOPIC, new RecordHeaders(), RESULT);
+
+		assertThat(value).isEqualTo(new RetryResultMessage("PO-1", 2, "FAILED", "Network error", null));
+	}
+
+	@Test
+	void ignoresForeignTypeHeader() {
+		RecordHeaders headers = new RecordHeaders();
+		headers.add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+				"com.acme.worker.RetryOutcome".getBytes(StandardCharsets.UTF_8));
+
+		Object value = deserializer().deserialize(KafkaProducer.RETRY_RESULT_TOPIC, headers, RESULT);
+
+		assertThat(value).isInstanceOf(RetryResultMessage.class);
+	}
+
+	private static EventDeserializer deserializer() {
+		// As configured by application.properties, plus the listener's own settings
+		Map<String, Object> configs = new HashMap<>();
+		configs.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+		configs.putAll(RetryResultConsumer.VALUE_DESERIALIZER_CONFIGS);
+		EventDeserializer deserializer = new EventDeserializer();
+		deserializer.configure(configs, false);
+		return deserializer;
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.sapdashboard.repository;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryEventStoreTest {
+
+	private final InMemoryEventStore store = new InMemoryEventStore();
+
+	@Test
+	void indexesByStatusAndOrderId() {
+		IntegrationEvent saved = store.save(event("PO-1", "FAILED", 1));
+		store.insertAll(List.of(event("PO-2", "PENDING", 0), event("PO-1", "SUCCESS", 0)), 10);
+
+		saved.setStatus("PENDING");
+		store.save(saved);
+
+		assertThat(store.findByStatus("FAILED")).isEmpty();
+		assertThat(store.findByStatus("PENDING")).extracting(IntegrationEvent::getOrderId).containsExactly("PO-1", "PO-2");
+		assertThat(store.findByOrderId("PO-1")).extracting(IntegrationEvent::getStatus).containsExactly("PENDING", "SUCCESS");
+		assertThat(store.countByStatus()).isEqualTo(Map.of("PENDING", 2L, "SUCCESS", 1L));
+		assertThat(store.findRecent(2)).extracting(IntegrationEvent::getOrderId).containsExactly("PO-1", "PO-2");
+		assertThat(store.findIdsByStatusAndOrderIds("PENDING", List.of("PO-1")))
+				.containsOnlyKeys(IntegrationEventBatchRepository.retryKey("PO-1", 1));
+	}
+
+	@Test
+	void returnsDetachedCopies() {
+		Long id = store.save(event("PO-1", "FAILED", 0)).getId();
+
+		store.findById(id).orElseThrow().setStatus("SUCCESS");
+
+		assertThat(store.findById(id).orElseThrow().getStatus()).isEqualTo("FAILED");
+		assertThat(store.findByStatus("FAILED")).hasSize(1);
+	}
+
+	@Test
+	void concurrentTransitionsMoveEachEventOnce() throws Exception {
+		List<IntegrationEvent> events = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			events.add(event("PO-" + i, "FAILED", 0));
+		}
+		store.insertAll(events, 500);
+		List<Long> ids = store.findIdsAfter("FAILED", null, null, null, null, 0, 5000);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(executor.submit(() -> store.transition(ids, "FAILED", "PENDING", null)));
+		}
+		int moved = 0;
+		for (Future<Integer> result : results) {
+			moved += result.get();
+		}
+		executor.shutdown();
+
+		assertThat(ids).hasSize(1000);
+		assertThat(moved).isEqualTo(1000);
+		assertThat(store.countByStatus()).isEqualTo(Map.of("PENDING", 1000L));
+		assertThat(store.findIdsAfter("PENDING", null, null, null, null, ids.get(997), 10)).hasSize(2);
+	}
+
+	@Test
+	void replacesExtractedFieldValues() {
+		Long first = store.save(event("PO-1", "FAILED", 0)).getId();
+		Long second = store.save(event("PO-2", "FAILED", 0)).getId();
+		store.replaceFieldValues(first, Map.of("material", List.of("MAT-001", "MAT-002")));
+		store.replaceFieldValues(second, Map.of("material", List.of("MAT-001")));
+
+		assertThat(store.findIdsByFieldValue("material", "MAT-001", 10)).containsExactly(second, first);
+		assertThat(store.findIdsByFieldValue("material", "MAT-001", 1)).containsExactly(second);
+
+		store.replaceFieldValues(first, Map.of("material", List.of("MAT-003")));
+		assertThat(store.findIdsByFieldValue("material", "MAT-002", 10)).isEmpty();
+		assertThat(store.findIdsByFieldValue("material", "MAT-003", 10)).containsExactly(first);
+		assertThat(store.findIdsByFieldValue("customerId", "MAT-003", 10)).isEmpty();
+	}
+
+	private static IntegrationEvent event(String orderId, String status, int retryCount) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setOrderId(orderId);
+		event.setStatus(status);
+		event.setRetryCount(retryCount);
+		event.setIntegrationName("SAP_ORDER");
+		return event;
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.sapdashboard.repository;
+
+import com.example.sapdashboard.model.EventProjection;
+import com.example.sapdashboard.model.IntegrationEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class IntegrationEventBatchRepositoryTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private IntegrationEventBatchRepository batchRepository;
+
+	@BeforeEach
+	void setUp() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:batch-repository-test;DB_CLOSE_DELAY=-1");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS integration_events");
+		jdbcTemplate.execute("CREATE TABLE integration_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "order_id VARCHAR(255) NOT NULL, status VARCHAR(255) NOT NULL, message TEXT, payload TEXT, "
+				+ "original_payload TEXT, payload_format VARCHAR(255), retry_count INT, retry_history TEXT, "
+				+ "error_details TEXT, integration_name VARCHAR(255), created_at TIMESTAMP, updated_at TIMESTAMP, "
+				+ "payload_ref_segment INT, payload_ref_offset BIGINT, payload_ref_length INT, "
+				+ "original_payload_ref_segment INT, original_payload_ref_offset BIGINT, original_payload_ref_length INT, "
+				+ "retry_history_ref_segment INT, retry_history_ref_offset BIGINT, retry_history_ref_length INT, error_signature VARCHAR(16))");
+		batchRepository = new IntegrationEventBatchRepository(jdbcTemplate);
+		batchRepository.insertAll(List.of(
+				event("PO-1", "PENDING", 1),
+				event("PO-2", "FAILED", 1),
+				event("PO-3", "SUCCESS", 1)), 10);
+	}
+
+	@Test
+	void setsGeneratedIdsAcrossBatches() {
+		List<IntegrationEvent> events = List.of(event("PO-4", "FAILED", 0), event("PO-5", "FAILED", 0),
+				event("PO-6", "SUCCESS", 0));
+
+		batchRepository.insertAll(events, 2);
+
+		for (IntegrationEvent event : events) {
+			assertThat(jdbcTemplate.queryForObject("SELECT order_id FROM integration_events WHERE id = ?",
+					String.class, event.getId())).isEqualTo(event.getOrderId());
+		}
+	}
+
+	@Test
+	void findsPendingIdsByOrderAndRetryCount() {
+		IntegrationEvent duplicate = event("PO-1", "PENDING", 1);
+		batchRepository.insertAll(List.of(duplicate), 10);
+
+		Map<String, List<Long>> ids = batchRepository.findIdsByStatusAndOrderIds("PENDING", List.of("PO-1", "PO-2"));
+
+		assertThat(ids).containsOnlyKeys(IntegrationEventBatchRepository.retryKey("PO-1", 1));
+		assertThat(ids.get(IntegrationEventBatchRepository.retryKey("PO-1", 1))).hasSize(2).contains(duplicate.getId());
+	}
+
+	@Test
+	void clearsErrorOnTransitionToSuccess() {
+		jdbcTemplate.update("UPDATE integration_events SET error_details = 'Network error', error_signature = 'abc'");
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM integration_events", Long.class);
+
+		int updated = batchRepository.transitionClearingError(ids, "PENDING", "SUCCESS");
+
+		assertThat(updated).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForList("SELECT order_id, status, error_details, error_signature FROM integration_events ORDER BY order_id"))
+				.extracting(row -> row.get("ORDER_ID") + ":" + row.get("STATUS") + ":" + row.get("ERROR_DETAILS") + ":" + row.get("ERROR_SIGNATURE"))
+				.containsExactly("PO-1:SUCCESS:null:null", "PO-2:FAILED:Network error:abc", "PO-3:SUCCESS:Network error:abc");
+	}
+
+	@Test
+	void transitionsOnlyRowsStillInTheExpectedStatus() {
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM integration_events", Long.class);
+
+		int updated = batchRepository.transition(ids, "PENDING", "FAILED", "Network error");
+
+		assertThat(updated).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForList("SELECT order_id, status, error_details FROM integration_events ORDER BY order_id"))
+				.extracting(row -> row.get("ORDER_ID") + ":" + row.get("STATUS") + ":" + row.get("ERROR_DETAILS"))
+				.containsExactly("PO-1:FAILED:Network error", "PO-2:FAILED:null", "PO-3:SUCCESS:null");
+	}
+
+	@Test
+	void pagesFilteredIdsByKeyset() {
+		jdbcTemplate.update("UPDATE integration_events SET status = 'FAILED', error_details = 'Connection timeout to SAP'");
+		jdbcTemplate.update("UPDATE integration_events SET error_details = '100% broken' WHERE order_id = 'PO-3'");
+
+		List<Long> first = batchRepository.findIdsAfter("FAILED", null, "timeout", null, null, 0, 1);
+		List<Long> second = batchRepository.findIdsAfter("FAILED", null, "timeout", null, null, first.get(0), 1);
+		List<Long> rest = batchRepository.findIdsAfter("FAILED", null, "timeout", null, null, second.get(0), 1);
+
+		assertThat(first.get(0)).isLessThan(second.get(0));
+		assertThat(rest).isEmpty();
+		assertThat(batchRepository.findIdsAfter("FAILED", null, "0% b", null, null, 0, 10)).hasSize(1);
+		assertThat(batchRepository.findIdsAfter("FAILED", null, "0_ b", null, null, 0, 10)).isEmpty();
+	}
+
+	@Test
+	void readsOnlyProjectedFields() {
+		jdbcTemplate.update("UPDATE integration_events SET payload = '<order/>', created_at = ? WHERE order_id = 'PO-2'",
+				Timestamp.valueOf(LocalDateTime.of(2024, 3, 10, 12, 0)));
+		EventProjection projection = EventProjection.parse("orderId,payload,timeAgo");
+
+		List<Map<String, Object>> rows = batchRepository.findFields(projection, "FAILED", null);
+
+		assertThat(rows).hasSize(1);
+		assertThat(rows.get(0)).containsOnlyKeys("orderId", "payload", "createdAt");
+		assertThat(projection.toResponse(rows.get(0), LocalDateTime.of(2024, 3, 10, 15, 0)))
+				.containsExactly(entry("orderId", "PO-2"), entry("payload", "<order/>"), entry("timeAgo", "3h ago"));
+	}
+
+	private static IntegrationEvent event(String orderId, String status, int retryCount) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setOrderId(orderId);
+		event.setStatus(status);
+		event.setRetryCount(retryCount);
+		return event;
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsStoreTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 12, 30);
+
+	private final AnalyticsStore store = new AnalyticsStore(null);
+
+	@Test
+	void groupsFailuresByIntegrationAndHour() {
+		store.append(event(1L, "FAILED", "SAP_ORDER", NOW.minusMinutes(10), 1));
+		store.append(event(2L, "FAILED", "SAP_ORDER", NOW.minusMinutes(20), 2));
+		store.append(event(3L, "FAILED", "SAP_INVOICE", NOW.minusHours(1), 0));
+		store.append(event(4L, "SUCCESS", "SAP_ORDER", NOW, 0));
+		store.append(event(5L, "FAILED", "SAP_ORDER", NOW.minusDays(8), 0));
+
+		Map<String, Object> result = store.query(
+				AnalyticsQuery.parse("integrationName", "status:FAILED,since:7d", "hour", NOW));
+
+		assertThat(result.get("matchedRows")).isEqualTo(3L);
+		assertThat(rows(result)).containsExactly(
+				Map.of("bucket", "2024-03-10T11:00", "integrationName", "SAP_INVOICE", "count", 1L, "retries", 0L),
+				Map.of("bucket", "2024-03-10T12:00", "integrationName", "SAP_ORDER", "count", 2L, "retries", 3L));
+	}
+
+	@Test
+	void updatesRowInPlaceWhenStatusChanges() {
+		IntegrationEvent event = event(7L, "FAILED", "SAP_ORDER", NOW, 0);
+		store.append(event);
+		event.setStatus("PENDING");
+		event.setRetryCount(1);
+		store.append(event);
+
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(rows(store.query(AnalyticsQuery.parse("status", null, null, NOW))))
+				.containsExactly(Map.of("status", "PENDING", "count", 1L, "retries", 1L));
+	}
+
+	@Test
+	void scansAcrossChunks() {
+		int rows = AnalyticsStore.CHUNK_SIZE * 2 + 10;
+		for (int i = 0; i < rows; i++) {
+			store.append(event(null, i % 2 == 0 ? "SUCCESS" : "FAILED", "SAP_ORDER", NOW, 0));
+		}
+
+		Map<String, Object> result = store.query(AnalyticsQuery.parse("status", "status:FAILED", null, NOW));
+
+		assertThat(result.get("scannedRows")).isEqualTo((long) rows);
+		assertThat(rows(result)).containsExactly(Map.of("status", "FAILED", "count", (long) rows / 2, "retries", 0L));
+	}
+
+	@Test
+	void rejectsUnknownFields() {
+		assertThatThrownBy(() -> AnalyticsQuery.parse("orderId", null, null))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> AnalyticsQuery.parse(null, "payload:x", null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> rows(Map<String, Object> result) {
+		return (List<Map<String, Object>>) result.get("rows");
+	}
+
+	private static IntegrationEvent event(Long id, String status, String integrationName, LocalDateTime createdAt, int retries) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setId(id);
+		event.setOrderId("PO-" + id);
+		event.setStatus(status);
+		event.setIntegrationName(integrationName);
+		event.setCreatedAt(createdAt);
+		event.setRetryCount(retries);
+		return event;
+	}
+}
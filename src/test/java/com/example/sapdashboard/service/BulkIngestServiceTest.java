@@ -0,0 +1,49 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BulkIngestServiceTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+	@Test
+	void rejectsOnlyTheElementThatDoesNotMapInAJsonArray() throws Exception {
+		EventService eventService = mock(EventService.class);
+		List<String> saved = new ArrayList<>();
+		doAnswer(invocation -> {
+			List<IntegrationEvent> batch = invocation.getArgument(0);
+			batch.forEach(event -> saved.add(event.getOrderId()));
+			return null;
+		}).when(eventService).saveEvents(anyList());
+		BulkIngestService service = new BulkIngestService(eventService, objectMapper);
+		ReflectionTestUtils.setField(service, "batchSize", 10);
+		String body = "[{\"orderId\": \"PO-1\", \"status\": \"FAILED\"},\n"
+				+ "{\"orderId\": \"PO-2\", \"retryCount\": {\"nested\": [1, 2]}, \"status\": \"FAILED\"},\n"
+				+ "{\"orderId\": \"PO-3\", \"status\": \"SUCCESS\"}]";
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		service.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), response);
+
+		JsonNode result = objectMapper.readTree(response.toByteArray());
+		assertThat(saved).containsExactly("PO-1", "PO-3");
+		assertThat(result.get("accepted").asLong()).isEqualTo(2);
+		assertThat(result.get("rejected").asLong()).isEqualTo(1);
+		assertThat(result.get("results").get(0).get("line").asInt()).isEqualTo(2);
+	}
+}
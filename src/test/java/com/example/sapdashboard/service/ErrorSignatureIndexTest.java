@@ -0,0 +1,92 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.ErrorSignature;
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.repository.InMemoryEventStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ErrorSignatureIndexTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 12, 0);
+
+	@Test
+	void masksVariablePartsOfErrorDetails() {
+		assertThat(ErrorSignature.normalize("Timeout calling https://sap-03.corp:8443/api for PO-12345 after 30000 ms"))
+				.isEqualTo("Timeout calling https://<host>/api for PO-<n> after <n> ms");
+		assertThat(ErrorSignature.normalize("Material 'MAT-AX' locked by user JDOE at 2024-03-10T11:59:01.123Z"))
+				.isEqualTo("Material '<v>' locked by user JDOE at <ts>");
+		assertThat(ErrorSignature.normalize("IDoc 0000004711 rejected, trace 3f2b8c1e-9a7d-4e11-b0c2-7d9e8f6a5b4c, host=10.0.0.12"))
+				.isEqualTo("IDoc <n> rejected, trace <uuid>, host=<host>");
+		assertThat(ErrorSignature.normalize("Internal server error on S4HANA")).isEqualTo("Internal server error on S4HANA");
+		assertThat(ErrorSignature.normalize("  ")).isNull();
+
+		assertThat(ErrorSignature.hashOf("Network error for PO-1"))
+				.isEqualTo(ErrorSignature.hashOf("Network  error for PO-99812"))
+				.hasSize(16)
+				.isNotEqualTo(ErrorSignature.hashOf("Network error for SO-1"));
+	}
+
+	@Test
+	void ranksSignaturesInTheWindow() {
+		ErrorSignatureIndex index = new ErrorSignatureIndex(new InMemoryEventStore(), 5, "1h,24h", 100);
+		for (int i = 0; i < 3; i++) {
+			record(index, failed("Connection timeout for PO-" + i, "Order-to-SAP", NOW.minusMinutes(10)), NOW);
+		}
+		record(index, failed("Connection timeout for PO-7", "Invoice-to-SAP", NOW.minusHours(3)), NOW);
+		record(index, failed("Invalid data format", "Order-to-SAP", NOW.minusMinutes(1)), NOW);
+
+		List<Map<String, Object>> lastHour = signatures(index.top("1h", 10, null, NOW));
+		assertThat(lastHour).extracting(row -> row.get("text"), row -> row.get("count"))
+				.containsExactly(tuple("Connection timeout for PO-<n>", 3L),
+						tuple("Invalid data format", 1L));
+		assertThat(lastHour.get(0)).containsEntry("total", 4L);
+
+		List<Map<String, Object>> lastDay = signatures(index.top("24h", 1, null, NOW));
+		assertThat(lastDay).hasSize(1);
+		assertThat(lastDay.get(0)).containsEntry("count", 4L)
+				.containsEntry("byIntegration", Map.of("Order-to-SAP", 3L, "Invoice-to-SAP", 1L));
+		assertThat(signatures(index.top("24h", 10, "Invoice-to-SAP", NOW))).hasSize(1);
+
+		assertThatThrownBy(() -> index.top("2h", 10, null, NOW)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void subtractsBucketsThatLeaveTheWindow() {
+		ErrorSignatureIndex index = new ErrorSignatureIndex(new InMemoryEventStore(), 5, "1h,24h", 100);
+		record(index, failed("Network error", "Order-to-SAP", NOW), NOW);
+		record(index, failed("Network error", "Order-to-SAP", NOW.plusMinutes(30)), NOW.plusMinutes(30));
+
+		assertThat(signatures(index.top("1h", 10, null, NOW.plusMinutes(50))).get(0)).containsEntry("count", 2L);
+		assertThat(signatures(index.top("1h", 10, null, NOW.plusMinutes(70))).get(0)).containsEntry("count", 1L);
+		assertThat(signatures(index.top("1h", 10, null, NOW.plusHours(2)))).isEmpty();
+		assertThat(signatures(index.top("24h", 10, null, NOW.plusHours(2))).get(0)).containsEntry("count", 2L);
+		assertThat(signatures(index.top("24h", 10, null, NOW.plusDays(2)))).isEmpty();
+	}
+
+	private static void record(ErrorSignatureIndex index, IntegrationEvent event, LocalDateTime now) {
+		index.record(event, event.getCreatedAt(), now);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> signatures(Map<String, Object> top) {
+		return (List<Map<String, Object>>) top.get("signatures");
+	}
+
+	private static IntegrationEvent failed(String errorDetails, String integrationName, LocalDateTime createdAt) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setOrderId("PO-1");
+		event.setStatus("FAILED");
+		event.setErrorDetails(errorDetails);
+		event.setIntegrationName(integrationName);
+		event.setCreatedAt(createdAt);
+		return event;
+	}
+}
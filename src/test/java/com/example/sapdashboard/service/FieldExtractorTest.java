@@ -0,0 +1,72 @@
+package com.example.sapdashboard.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldExtractorTest {
+
+	private static final String XML = "<?xml version=\"1.0\"?>\n"
+			+ "<SalesOrder id=\"SO-9\"><CustomerID> CUST-001 </CustomerID><TotalAmount>15000.00</TotalAmount>"
+			+ "<LineItems><LineItem><Material>MAT-001</Material></LineItem>"
+			+ "<LineItem><Material>MAT-002</Material></LineItem>"
+			+ "<LineItem><Material>MAT-001</Material></LineItem></LineItems></SalesOrder>";
+
+	private static final String JSON = "{\"notes\": {\"customerId\": \"ignored\"}, \"customerId\": \"CUST-001\", "
+			+ "\"totalAmount\": 15000.00, \"lineItems\": [{\"material\": \"MAT-001\"}, {\"material\": \"MAT-002\"}]}";
+
+	private final FieldExtractor extractor = new FieldExtractor(rules(), new JsonFactory());
+
+	@Test
+	void extractsFromXml() {
+		assertThat(extractor.extract(XML, PayloadFormatService.XML)).isEqualTo(Map.of(
+				"orderKey", List.of("SO-9"),
+				"customerId", List.of("CUST-001"),
+				"totalAmount", List.of("15000.00"),
+				"material", List.of("MAT-001", "MAT-002")));
+	}
+
+	@Test
+	void extractsFromJson() {
+		assertThat(extractor.extract(JSON, PayloadFormatService.JSON)).isEqualTo(Map.of(
+				"customerId", List.of("CUST-001"),
+				"totalAmount", List.of("15000.00"),
+				"material", List.of("MAT-001", "MAT-002")));
+	}
+
+	@Test
+	void keepsWhatWasReadBeforeMalformedInput() {
+		assertThat(extractor.extract("<SalesOrder><CustomerID>CUST-001</CustomerID><Total", PayloadFormatService.XML))
+				.isEqualTo(Map.of("customerId", List.of("CUST-001")));
+		assertThat(extractor.extract("not a payload", null)).isEmpty();
+		assertThatThrownBy(() -> new FieldExtractor(Map.of("bad", "CSV:/a"), new JsonFactory()))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void capsLongValuesTheSameWayForLookups() {
+		String customerId = "CUST-" + "9".repeat(300);
+
+		List<String> stored = extractor.extract("{\"customerId\": \"" + customerId + "\"}", PayloadFormatService.JSON)
+				.get("customerId");
+
+		assertThat(stored).containsExactly(FieldExtractor.normalize(" " + customerId));
+		assertThat(stored.get(0)).hasSize(FieldExtractor.MAX_VALUE_LENGTH);
+		assertThat(FieldExtractor.normalize("  ")).isNull();
+	}
+
+	private static Map<String, String> rules() {
+		Map<String, String> rules = new LinkedHashMap<>();
+		rules.put("orderKey", "XML:/SalesOrder/@id");
+		rules.put("customerId", "XML:/SalesOrder/CustomerID, JSON:/customerId");
+		rules.put("totalAmount", "XML:/SalesOrder/TotalAmount,JSON:/totalAmount");
+		rules.put("material", "XML:/SalesOrder/LineItems/*/Material,JSON:/lineItems/*/material");
+		return rules;
+	}
+}
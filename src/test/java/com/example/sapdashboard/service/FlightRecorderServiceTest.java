@@ -0,0 +1,68 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.jfr.SaveJfrEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private FlightRecorderService flightRecorder;
+
+	@AfterEach
+	void tearDown() {
+		flightRecorder.close();
+	}
+
+	@Test
+	void dumpsDashboardEvents() throws Exception {
+		flightRecorder = new FlightRecorderService(directory.toString(), "default", 5, 10, 5);
+		flightRecorder.start(null, null);
+
+		SaveJfrEvent event = new SaveJfrEvent();
+		event.begin();
+		event.commitPhases("PO-1", "FAILED", 42, 1_000, 2_000, 3_000);
+		Path file = flightRecorder.stop();
+
+		List<RecordedEvent> saves = RecordingFile.readAllEvents(file).stream()
+				.filter(recorded -> recorded.getEventType().getName().equals("com.example.sapdashboard.EventSave"))
+				.collect(Collectors.toList());
+		assertThat(saves).hasSize(1);
+		assertThat(saves.get(0).getString("orderId")).isEqualTo("PO-1");
+		assertThat(saves.get(0).getInt("payloadLength")).isEqualTo(42);
+		assertThat(saves.get(0).getDuration("storeDuration").toNanos()).isEqualTo(2_000);
+		assertThat(flightRecorder.getStatus()).containsEntry("running", false);
+	}
+
+	@Test
+	void keepsOnlyTheNewestDumps() throws Exception {
+		flightRecorder = new FlightRecorderService(directory.toString(), "default", 5, 10, 2);
+		for (String name : new String[]{"sap-dashboard-20000101-000000-000.jfr", "sap-dashboard-20000102-000000-000.jfr"}) {
+			Files.createFile(directory.resolve(name));
+		}
+		assertThatThrownBy(() -> flightRecorder.dump()).isInstanceOf(IllegalStateException.class);
+
+		flightRecorder.start(1, 1);
+		assertThatThrownBy(() -> flightRecorder.start(null, null)).isInstanceOf(IllegalStateException.class);
+		Path file = flightRecorder.dump();
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.map(path -> path.getFileName().toString()))
+					.containsExactlyInAnyOrder("sap-dashboard-20000102-000000-000.jfr", file.getFileName().toString());
+		}
+	}
+}
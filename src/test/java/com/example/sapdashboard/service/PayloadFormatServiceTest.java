@@ -0,0 +1,69 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.dto.PayloadValidationResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadFormatServiceTest {
+
+	private final PayloadFormatService service = new PayloadFormatService(new ObjectMapper());
+
+	@Test
+	void reportsLineAndColumnOfXmlError() {
+		PayloadValidationResult result = service.validate(
+				"<SalesOrder>\n  <OrderID>PO-1</OrderId>\n</SalesOrder>", "XML");
+
+		assertThat(result.isValid()).isFalse();
+		assertThat(result.getLine()).isEqualTo(2);
+		assertThat(result.getColumn()).isPositive();
+	}
+
+	@Test
+	void reportsLineAndColumnOfJsonError() {
+		PayloadValidationResult result = service.validate("{\n  \"orderId\": \"PO-1\",\n  \"qty\": }", "json");
+
+		assertThat(result.isValid()).isFalse();
+		assertThat(result.getFormat()).isEqualTo("JSON");
+		assertThat(result.getLine()).isEqualTo(3);
+	}
+
+	@Test
+	void rejectsTrailingJsonContent() {
+		assertThat(service.validate("{\"a\":1} {\"b\":2}", "JSON").isValid()).isFalse();
+	}
+
+	@Test
+	void prettyPrintsAndMinifiesXml() {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><SalesOrder id=\"1\"><OrderID>PO-1</OrderID>"
+				+ "<LineItems><LineItem><Material>MAT-001</Material></LineItem></LineItems></SalesOrder>";
+
+		String pretty = service.prettyPrint(xml, null);
+
+		assertThat(pretty).isEqualTo("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<SalesOrder id=\"1\">\n"
+				+ "    <OrderID>PO-1</OrderID>\n"
+				+ "    <LineItems>\n"
+				+ "        <LineItem>\n"
+				+ "            <Material>MAT-001</Material>\n"
+				+ "        </LineItem>\n"
+				+ "    </LineItems>\n"
+				+ "</SalesOrder>");
+		assertThat(service.minify(pretty, "XML")).isEqualTo(xml.replace("?>", "?>\n"));
+	}
+
+	@Test
+	void minifiesJson() {
+		assertThat(service.minify("{\n  \"orderId\" : \"PO-1\",\n  \"lineItems\" : [ 1, 2 ]\n}", null))
+				.isEqualTo("{\"orderId\":\"PO-1\",\"lineItems\":[1,2]}");
+	}
+
+	@Test
+	void formattingInvalidPayloadThrows() {
+		assertThatThrownBy(() -> service.prettyPrint("<a><b></a>", "XML"))
+				.isInstanceOf(InvalidPayloadException.class)
+				.hasMessageContaining("line 1");
+	}
+}
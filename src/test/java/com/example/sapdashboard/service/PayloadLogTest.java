@@ -0,0 +1,111 @@
+package com.example.sapdashboard.service;
+
+import com.example.sapdashboard.model.IntegrationEvent;
+import com.example.sapdashboard.repository.InMemoryEventStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadLogTest {
+
+	@TempDir
+	Path directory;
+
+	private final InMemoryEventStore store = new InMemoryEventStore();
+	private PayloadLog payloadLog;
+
+	@AfterEach
+	void tearDown() {
+		if (payloadLog != null) {
+			payloadLog.close();
+		}
+	}
+
+	@Test
+	void keepsOnlyRefsOnTheEvent() {
+		payloadLog = open();
+		IntegrationEvent event = event("PO-1", "<order>1</order>");
+
+		payloadLog.offload(event);
+		Long id = store.save(event).getId();
+
+		IntegrationEvent stored = store.findById(id).orElseThrow();
+		assertThat(stored.getPayload()).isNull();
+		assertThat(stored.getPayloadRef()).isNotNull();
+		payloadLog.hydrate(stored);
+		assertThat(stored.getPayload()).isEqualTo("<order>1</order>");
+		assertThat(stored.getOriginalPayload()).isEqualTo("<order>1</order>");
+
+		// Unchanged bodies keep their ref when the event is saved again
+		payloadLog.offload(stored);
+		assertThat(stored.getPayloadRef()).isEqualTo(event.getPayloadRef());
+	}
+
+	@Test
+	void recoversWritePositionAfterRestart() {
+		payloadLog = open();
+		IntegrationEvent first = event("PO-1", "first");
+		payloadLog.offload(first);
+		payloadLog.close();
+
+		payloadLog = open();
+		IntegrationEvent second = event("PO-2", "second");
+		payloadLog.offload(second);
+
+		assertThat(second.getPayloadRef().getOffset()).isGreaterThan(first.getOriginalPayloadRef().getOffset());
+		assertThat(payloadLog.read(first.getPayloadRef())).isEqualTo("first");
+		assertThat(payloadLog.read(second.getPayloadRef())).isEqualTo("second");
+	}
+
+	@Test
+	void compactsSegmentsEmptiedByPurge() throws Exception {
+		payloadLog = open();
+		String body = "x".repeat(200_000);
+		IntegrationEvent kept = event("PO-1", body);
+		IntegrationEvent purged = event("PO-2", body);
+		purged.setStatus("SUCCESS");
+		purged.setTimestamp(LocalDateTime.now().minusDays(40));
+		for (IntegrationEvent event : new IntegrationEvent[]{kept, purged}) {
+			payloadLog.offload(event);
+			store.save(event);
+		}
+		// Fill the first 1 MB segment so it is sealed
+		IntegrationEvent filler = event("PO-3", "y".repeat(600_000));
+		payloadLog.offload(filler);
+		store.save(filler);
+		payloadLog.accountLiveBytes();
+
+		payloadLog.purge("SUCCESS", LocalDateTime.now().minusDays(30));
+		payloadLog.compact();
+		payloadLog.compact();
+
+		IntegrationEvent reloaded = store.findById(kept.getId()).orElseThrow();
+		assertThat(reloaded.getPayloadRef().getSegment()).isNotEqualTo(kept.getPayloadRef().getSegment());
+		payloadLog.hydrate(reloaded);
+		assertThat(reloaded.getPayload()).isEqualTo(body);
+		assertThat(store.findById(purged.getId()).orElseThrow().getPayloadRef()).isNull();
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.map(path -> path.getFileName().toString())).doesNotContain("payload-00000000.log");
+		}
+	}
+
+	private PayloadLog open() {
+		return new PayloadLog(store, directory.toString(), 1, 0.75);
+	}
+
+	private static IntegrationEvent event(String orderId, String payload) {
+		IntegrationEvent event = new IntegrationEvent();
+		event.setOrderId(orderId);
+		event.setStatus("FAILED");
+		event.setPayload(payload);
+		event.setOriginalPayload(payload);
+		return event;
+	}
+}
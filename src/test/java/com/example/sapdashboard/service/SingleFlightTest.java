@@ -0,0 +1,86 @@
+package com.example.sapdashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+	private final StoreVersion storeVersion = new StoreVersion();
+
+	@Test
+	void concurrentCallersShareOneExecution() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(storeVersion, true, 1000);
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> singleFlight.get("stats", null, true, () -> {
+					executions.incrementAndGet();
+					await(release);
+					return 42;
+				})));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<Integer> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(executions).hasValue(1);
+		assertThat(counters(singleFlight, "stats")).containsEntry("executions", 1L).containsEntry("coalesced", 7L);
+	}
+
+	@Test
+	void reusesResultsUntilWriteUnlessStaleIsAllowed() {
+		SingleFlight singleFlight = new SingleFlight(storeVersion, true, 60_000);
+		AtomicInteger executions = new AtomicInteger();
+
+		assertThat(singleFlight.get("counts", null, false, executions::incrementAndGet)).isEqualTo(1);
+		assertThat(singleFlight.get("counts", null, false, executions::incrementAndGet)).isEqualTo(1);
+		storeVersion.bump();
+		// Within the staleness window for callers that accept it, recomputed for the rest
+		assertThat(singleFlight.get("counts", null, true, executions::incrementAndGet)).isEqualTo(1);
+		assertThat(singleFlight.get("counts", null, false, executions::incrementAndGet)).isEqualTo(2);
+		assertThat(singleFlight.get("counts", "other", true, executions::incrementAndGet)).isEqualTo(3);
+		assertThat(counters(singleFlight, "counts")).containsEntry("executions", 3L).containsEntry("hits", 2L);
+	}
+
+	@Test
+	void doesNotKeepFailures() {
+		SingleFlight singleFlight = new SingleFlight(storeVersion, true, 60_000);
+		assertThatThrownBy(() -> singleFlight.get("recent", null, true, () -> {
+			throw new IllegalStateException("database down");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(singleFlight.get("recent", null, true, () -> "ok")).isEqualTo("ok");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> counters(SingleFlight singleFlight, String name) {
+		return (Map<String, Object>) ((Map<String, Object>) singleFlight.getStats().get("computations")).get(name);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.sapdashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+	@Test
+	void firesTimersInTheTickOfTheirDeadline() {
+		TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+		wheel.schedule("a", 250);
+		wheel.schedule("b", 300);
+		wheel.schedule("c", 5_000); // several revolutions out
+
+		assertThat(wheel.advance(200)).isEmpty();
+		assertThat(wheel.advance(300)).containsExactlyInAnyOrder("a", "b");
+		assertThat(wheel.advance(4_900)).isEmpty();
+		assertThat(wheel.size()).isEqualTo(1);
+		assertThat(wheel.advance(5_000)).containsExactly("c");
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void firesOverdueTimersOnNextAdvance() {
+		TimingWheel<String> wheel = new TimingWheel<>(100, 8, 1_000);
+		wheel.schedule("late", 10);
+
+		assertThat(wheel.advance(1_000)).containsExactly("late");
+	}
+
+	@Test
+	void handlesManyPendingTimers() {
+		TimingWheel<Integer> wheel = new TimingWheel<>(10, 512, 0);
+		int timers = 300_000;
+		for (int i = 0; i < timers; i++) {
+			wheel.schedule(i, (i % 10_000) * 10L);
+		}
+
+		List<Integer> fired = new ArrayList<>();
+		for (long now = 0; now <= 100_000; now += 1_000) {
+			fired.addAll(wheel.advance(now));
+		}
+
+		assertThat(fired).hasSize(timers);
+		assertThat(wheel.size()).isZero();
+	}
+}